@@ -0,0 +1,65 @@
+package com.vectordb.benchmark;
+
+import java.util.Random;
+
+/**
+ * Synthetic inputs shared by the benchmarks.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * A normalized random vector; the same seed always gives the same vector.
+     */
+    static float[] embedding(int dimension, long seed) {
+        Random random = new Random(seed);
+        float[] embedding = new float[dimension];
+        double sumSquares = 0;
+        for (int i = 0; i < dimension; i++) {
+            embedding[i] = (float) random.nextGaussian();
+            sumSquares += embedding[i] * embedding[i];
+        }
+        double norm = Math.sqrt(sumSquares);
+        for (int i = 0; i < dimension; i++) {
+            embedding[i] = (float) (embedding[i] / norm);
+        }
+        return embedding;
+    }
+
+    /**
+     * A Vespa query API response with {@code hits} children carrying all summary fields,
+     * including the embedding tensor.
+     */
+    static String searchResponse(int hits, int dimension) {
+        StringBuilder json = new StringBuilder(hits * (dimension * 12 + 400));
+        json.append("{\"root\":{\"id\":\"toplevel\",\"relevance\":1.0,\"fields\":{\"totalCount\":")
+                .append(hits)
+                .append("},\"coverage\":{\"coverage\":100,\"documents\":100000,\"full\":true,\"nodes\":1,\"results\":1,\"resultsFull\":1},")
+                .append("\"children\":[");
+        for (int i = 0; i < hits; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"id:vectordb:embedding::doc-").append(i)
+                    .append("\",\"relevance\":").append(1.0 - i * 0.0001)
+                    .append(",\"source\":\"vectordb\",\"fields\":{\"sddocname\":\"embedding\",")
+                    .append("\"documentid\":\"id:vectordb:embedding::doc-").append(i).append("\",")
+                    .append("\"content\":\"Lions are majestic big cats that live in African savannas and hunt in prides ").append(i).append("\",")
+                    .append("\"content_type\":\"TEXT\",\"category\":\"animals\",")
+                    .append("\"description\":\"African lion description\",\"media_url\":\"\",")
+                    .append("\"created_at\":1700000000000,")
+                    .append("\"embedding\":{\"type\":\"tensor<float>(x[").append(dimension).append("])\",\"values\":[");
+            float[] values = embedding(dimension, i);
+            for (int d = 0; d < dimension; d++) {
+                if (d > 0) {
+                    json.append(',');
+                }
+                json.append(values[d]);
+            }
+            json.append("]}}}");
+        }
+        return json.append("]}}").toString();
+    }
+}
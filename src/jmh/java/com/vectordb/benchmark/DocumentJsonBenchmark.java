@@ -0,0 +1,64 @@
+package com.vectordb.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vectordb.config.EmbeddingConfig;
+import com.vectordb.config.VespaConfig;
+import com.vectordb.model.ContentType;
+import com.vectordb.model.VectorDocument;
+import com.vectordb.service.AnnIndexLayout;
+import com.vectordb.service.DimensionReducer;
+import com.vectordb.service.DocumentJsonWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Document put body building, as done for every single and batch write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DocumentJsonBenchmark {
+
+    @Param({"384", "768", "1024"})
+    public int dimension;
+
+    @Param({"true", "false"})
+    public boolean hexTensorEncoding;
+
+    private DocumentJsonWriter writer;
+    private VectorDocument document;
+
+    @Setup
+    public void setup() {
+        VespaConfig config = new VespaConfig();
+        config.setHexTensorEncoding(hexTensorEncoding);
+        EmbeddingConfig embeddingConfig = new EmbeddingConfig();
+        embeddingConfig.setDimension(dimension);
+        writer = new DocumentJsonWriter(new ObjectMapper().getFactory(), config,
+                new AnnIndexLayout(config, embeddingConfig, new DimensionReducer(embeddingConfig)));
+        document = VectorDocument.builder()
+                .id("doc-1")
+                .content("Lions are majestic big cats that live in African savannas and hunt in prides")
+                .contentType(ContentType.TEXT)
+                .embedding(BenchmarkData.embedding(dimension, 42))
+                .category("animals")
+                .description("African lion description")
+                .createdAt(Instant.ofEpochMilli(1700000000000L))
+                .build();
+    }
+
+    @Benchmark
+    public String write() throws IOException {
+        return writer.write(document);
+    }
+}
@@ -0,0 +1,42 @@
+package com.vectordb.benchmark;
+
+import com.vectordb.config.EmbeddingConfig;
+import com.vectordb.service.HashEmbeddingProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deterministic hash embedding generation (digest, seeded Gaussian draw, normalization),
+ * bypassing the embedding cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EmbeddingBenchmark {
+
+    @Param({"384", "768", "1024"})
+    public int dimension;
+
+    private HashEmbeddingProvider provider;
+    private final String text = "Lions are majestic big cats that live in African savannas and hunt in prides";
+
+    @Setup
+    public void setup() {
+        EmbeddingConfig config = new EmbeddingConfig();
+        config.setDimension(dimension);
+        provider = new HashEmbeddingProvider(config);
+    }
+
+    @Benchmark
+    public float[] hashEmbedding() {
+        return provider.embed(text);
+    }
+}
@@ -0,0 +1,63 @@
+package com.vectordb.benchmark;
+
+import com.vectordb.service.VectorOps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exact scoring of over-fetched candidates as done by ExactReranker: the Vector API dot
+ * product against the scalar loop. The exec configuration of the benchmark profile loads
+ * jdk.incubator.vector; without it the comparison is meaningless and setup fails.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RerankBenchmark {
+
+    @Param({"384", "768", "1024"})
+    public int dimension;
+
+    @Param({"100", "400"})
+    public int candidates;
+
+    private float[] query;
+    private float[][] embeddings;
+    private float[] scores;
+
+    @Setup
+    public void setup() {
+        if (!VectorOps.isSimd()) {
+            throw new IllegalStateException("jdk.incubator.vector is not loaded; run with --add-modules jdk.incubator.vector");
+        }
+        query = BenchmarkData.embedding(dimension, 42);
+        embeddings = new float[candidates][];
+        for (int i = 0; i < candidates; i++) {
+            embeddings[i] = BenchmarkData.embedding(dimension, i);
+        }
+        scores = new float[candidates];
+    }
+
+    @Benchmark
+    public float[] simd() {
+        for (int i = 0; i < embeddings.length; i++) {
+            scores[i] = VectorOps.dot(query, embeddings[i]);
+        }
+        return scores;
+    }
+
+    @Benchmark
+    public float[] scalar() {
+        for (int i = 0; i < embeddings.length; i++) {
+            scores[i] = VectorOps.scalarDot(query, embeddings[i]);
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,78 @@
+package com.vectordb.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vectordb.dto.SearchResponse;
+import com.vectordb.model.ContentType;
+import com.vectordb.service.SearchResponseParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming search response parsing against the previous String + JsonNode tree path.
+ * Responses include the embedding tensor in every hit, as {@code select *} returns it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchResponseParseBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int hits;
+
+    @Param({"384", "768", "1024"})
+    public int dimension;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SearchResponseParser parser;
+    private byte[] body;
+
+    @Setup
+    public void setup() {
+        parser = new SearchResponseParser(objectMapper.getFactory());
+        body = BenchmarkData.searchResponse(hits, dimension).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public SearchResponse streaming() throws IOException {
+        return parser.parse(new ByteArrayInputStream(body));
+    }
+
+    @Benchmark
+    public SearchResponse tree() throws IOException {
+        // Previous implementation: EntityUtils.toString, readTree, then map
+        String responseBody = new String(new ByteArrayInputStream(body).readAllBytes(), StandardCharsets.UTF_8);
+        JsonNode rootNode = objectMapper.readTree(responseBody).path("root");
+
+        List<SearchResponse.SearchResult> results = new ArrayList<>();
+        for (JsonNode hit : rootNode.path("children")) {
+            JsonNode fields = hit.path("fields");
+            results.add(SearchResponse.SearchResult.builder()
+                    .id(hit.path("id").asText())
+                    .content(fields.path("content").asText())
+                    .contentType(ContentType.valueOf(fields.path("content_type").asText("TEXT")))
+                    .category(fields.path("category").asText())
+                    .description(fields.path("description").asText())
+                    .mediaUrl(fields.path("media_url").asText())
+                    .score(hit.path("relevance").asDouble())
+                    .build());
+        }
+        return SearchResponse.builder()
+                .results(results)
+                .totalHits(rootNode.path("fields").path("totalCount").asInt(results.size()))
+                .build();
+    }
+}
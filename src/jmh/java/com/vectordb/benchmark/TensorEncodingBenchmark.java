@@ -0,0 +1,54 @@
+package com.vectordb.benchmark;
+
+import com.vectordb.model.TensorCellType;
+import com.vectordb.service.TensorEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query tensor literals as built by VespaService.buildTensorString: hex cell strings per
+ * cell type against the plain JSON value array.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TensorEncodingBenchmark {
+
+    @Param({"384", "768", "1024"})
+    public int dimension;
+
+    private float[] embedding;
+
+    @Setup
+    public void setup() {
+        embedding = BenchmarkData.embedding(dimension, 42);
+    }
+
+    @Benchmark
+    public String hexFloat() {
+        return TensorEncoder.toQueryLiteral(embedding, TensorCellType.FLOAT);
+    }
+
+    @Benchmark
+    public String hexBfloat16() {
+        return TensorEncoder.toQueryLiteral(embedding, TensorCellType.BFLOAT16);
+    }
+
+    @Benchmark
+    public String hexInt8() {
+        return TensorEncoder.toQueryLiteral(embedding, TensorCellType.INT8);
+    }
+
+    @Benchmark
+    public String jsonArray() {
+        return TensorEncoder.toJsonArray(embedding);
+    }
+}
@@ -10,5 +10,24 @@ import org.springframework.context.annotation.Configuration;
 public class EmbeddingConfig {
     private String model = "sentence-transformers/all-MiniLM-L6-v2";
     private int dimension = 384;
+    // Coarse reduced-dimension copy the Vespa ANN search runs over, re-ranked on the full
+    // vector; 0 disables it. Prefix truncation unless a PCA projection file is given
+    private int coarseDimension = 0;
+    private String coarseProjectionPath;
     private int batchSize = 32;
+    // "hash" (deterministic, no model) or "djl" (sentence-transformer inference)
+    private String provider = "hash";
+    // Local directory holding the traced model and tokenizer.json
+    private String modelPath;
+    private String engine = "PyTorch";
+    private int maxSequenceLength = 256;
+    private long maxBatchWaitMs = 5;
+    private int inferenceThreads = 1;
+    private int queueCapacity = 1024;
+    // Longest a caller waits for its embeddings, queueing included
+    private long inferenceTimeoutMs = 30000;
+    // Embedding cache keyed by (content type, content); case is folded only for case-insensitive providers
+    private boolean cacheEnabled = true;
+    private long cacheMaxBytes = 64L * 1024 * 1024;
+    private long cacheTtlSeconds = 3600;
 }
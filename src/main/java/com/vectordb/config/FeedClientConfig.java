@@ -0,0 +1,46 @@
+package com.vectordb.config;
+
+import ai.vespa.feed.client.FeedClient;
+import ai.vespa.feed.client.FeedClientBuilder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.util.StringUtils;
+
+import java.net.URI;
+import java.nio.file.Path;
+
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class FeedClientConfig {
+
+    private final VespaConfig vespaConfig;
+
+    /**
+     * Vespa feed client used for batch writes. Operations are multiplexed as
+     * HTTP/2 streams over a small number of connections.
+     * Created on first use, since building it performs a handshake with Vespa.
+     */
+    @Lazy
+    @Bean(destroyMethod = "close")
+    public FeedClient feedClient() {
+        FeedClientBuilder builder = FeedClientBuilder.create(URI.create(vespaConfig.getEndpoint()))
+                .setConnectionsPerEndpoint(vespaConfig.getFeedConnections())
+                .setMaxStreamPerConnection(vespaConfig.getFeedMaxStreamsPerConnection())
+                .noBenchmarking();
+
+        if (StringUtils.hasText(vespaConfig.getCertificatePath())
+                && StringUtils.hasText(vespaConfig.getPrivateKeyPath())) {
+            builder.setCertificate(Path.of(vespaConfig.getCertificatePath()),
+                    Path.of(vespaConfig.getPrivateKeyPath()));
+        }
+
+        log.info("Creating Vespa feed client for {} ({} connections, {} streams per connection)",
+                vespaConfig.getEndpoint(), vespaConfig.getFeedConnections(),
+                vespaConfig.getFeedMaxStreamsPerConnection());
+        return builder.build();
+    }
+}
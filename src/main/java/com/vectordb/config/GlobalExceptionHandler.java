@@ -1,6 +1,8 @@
 package com.vectordb.config;
 
+import com.vectordb.store.StoreUnavailableException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -51,6 +53,18 @@ public class GlobalExceptionHandler {
         ));
     }
 
+    @ExceptionHandler(StoreUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleStoreUnavailable(StoreUnavailableException ex) {
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfterMs() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(Map.of(
+                        "error", "Service unavailable",
+                        "message", ex.getMessage(),
+                        "timestamp", Instant.now()
+                ));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex) {
         log.error("Unexpected error occurred", ex);
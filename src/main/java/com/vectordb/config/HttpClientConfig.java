@@ -1,24 +1,93 @@
 package com.vectordb.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.ConnPoolControl;
 import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
+@RequiredArgsConstructor
 public class HttpClientConfig {
 
+    private final VespaConfig vespaConfig;
+    private final MeterRegistry meterRegistry;
+
     @Bean
     public CloseableHttpClient httpClient() {
         PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
-        connectionManager.setMaxTotal(100);
-        connectionManager.setDefaultMaxPerRoute(20);
+        connectionManager.setMaxTotal(vespaConfig.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(vespaConfig.getMaxConnectionsPerRoute());
+        connectionManager.setDefaultConnectionConfig(connectionConfig());
+        registerPoolGauges(connectionManager, "blocking");
 
         return HttpClients.custom()
                 .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig())
+                .evictIdleConnections(TimeValue.ofMinutes(5))
+                .build();
+    }
+
+    /**
+     * Non-blocking client for searches. In-flight requests do not hold a thread,
+     * only a pooled connection.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient httpAsyncClient() {
+        PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(vespaConfig.getAsyncMaxConnections())
+                .setMaxConnPerRoute(vespaConfig.getAsyncMaxConnections())
+                .setDefaultConnectionConfig(connectionConfig())
+                .build();
+        registerPoolGauges(connectionManager, "async");
+
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig())
                 .evictIdleConnections(TimeValue.ofMinutes(5))
                 .build();
+        client.start();
+        return client;
+    }
+
+    /**
+     * Pool usage gauges: leased connections, requests waiting for a connection,
+     * idle connections and the pool limit.
+     */
+    private void registerPoolGauges(ConnPoolControl<?> pool, String client) {
+        Gauge.builder("vectordb.http.pool.leased", pool, p -> p.getTotalStats().getLeased())
+                .tag("client", client).register(meterRegistry);
+        Gauge.builder("vectordb.http.pool.pending", pool, p -> p.getTotalStats().getPending())
+                .tag("client", client).register(meterRegistry);
+        Gauge.builder("vectordb.http.pool.available", pool, p -> p.getTotalStats().getAvailable())
+                .tag("client", client).register(meterRegistry);
+        Gauge.builder("vectordb.http.pool.max", pool, p -> p.getTotalStats().getMax())
+                .tag("client", client).register(meterRegistry);
+    }
+
+    private ConnectionConfig connectionConfig() {
+        return ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(vespaConfig.getConnectionTimeout()))
+                .setSocketTimeout(Timeout.ofMilliseconds(vespaConfig.getReadTimeout()))
+                .build();
+    }
+
+    private RequestConfig requestConfig() {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(vespaConfig.getConnectionTimeout()))
+                .setResponseTimeout(Timeout.ofMilliseconds(vespaConfig.getReadTimeout()))
+                .build();
     }
 }
@@ -0,0 +1,21 @@
+package com.vectordb.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "ingest")
+public class IngestConfig {
+    // Derive document IDs from the content hash instead of random UUIDs, so a
+    // re-submitted document overwrites itself rather than creating a duplicate
+    private boolean contentAddressedIds = false;
+    // IDs stored recently; a re-submission of one is answered without embedding or feeding
+    private long recentIdsMaxSize = 1_000_000;
+    private long recentIdsTtlSeconds = 3600;
+    // Limit on one NDJSON import; 0 means none, since an import lasts as long as its upload
+    private long importTimeoutMs = 0;
+    // Records of an NDJSON import embedded in one batched pass while the next ones are read
+    private int importBatchSize = 128;
+}
@@ -0,0 +1,21 @@
+package com.vectordb.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "journal")
+public class JournalConfig {
+    // Acknowledge writes once journaled and feed them to the store in the background
+    private boolean enabled = false;
+    private String directory = "data/journal";
+    private int segmentBytes = 64 * 1024 * 1024;
+    // Force each append to disk before acknowledging it; concurrent appends share one flush
+    private boolean fsync = true;
+    private int batchSize = 256;
+    // Backoff between redeliveries while the store is unavailable
+    private long retryBaseDelayMs = 100;
+    private long retryMaxDelayMs = 10000;
+}
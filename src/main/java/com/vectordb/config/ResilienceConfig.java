@@ -0,0 +1,40 @@
+package com.vectordb.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "resilience")
+public class ResilienceConfig {
+    // Adaptive (AIMD) concurrency limit for searches; the limit shrinks on errors and slow calls
+    private int searchInitialLimit = 50;
+    private int searchMaxLimit = 500;
+    private long searchLatencyThresholdMs = 1000;
+    // Same for writes and deletes, capped by vespa.feed-max-in-flight;
+    // batch feeding waits up to ingestMaxWaitMs for a permit
+    private int ingestInitialLimit = 32;
+    private long ingestLatencyThresholdMs = 5000;
+    private long ingestMaxWaitMs = 30000;
+    private int minLimit = 4;
+    private double backoffRatio = 0.9;
+    // Circuit breaker per traffic class: opens when the failure rate over the last
+    // breakerWindow calls reaches breakerFailureRate percent
+    private int breakerFailureRate = 50;
+    private int breakerWindow = 50;
+    private int breakerMinimumCalls = 20;
+    private long breakerOpenMs = 5000;
+    private int breakerHalfOpenCalls = 5;
+    // Hedged searches: a duplicate is sent when a search has not answered after the
+    // hedgePercentile latency (clamped to the min/max delay), for at most hedgeMaxRatio of searches
+    private boolean hedgeEnabled = true;
+    private double hedgePercentile = 0.95;
+    private long hedgeMinDelayMs = 10;
+    private long hedgeMaxDelayMs = 1000;
+    private double hedgeMaxRatio = 0.1;
+    // Jittered retries of searches, and of single stores answered with 429/503
+    private int retryMaxAttempts = 3;
+    private long retryBaseDelayMs = 50;
+    private long retryMaxDelayMs = 1000;
+}
@@ -0,0 +1,28 @@
+package com.vectordb.config;
+
+import com.vectordb.model.HybridFusion;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "search")
+public class SearchConfig {
+    // Short-lived result cache in front of Vespa searches
+    private boolean cacheEnabled = true;
+    private long cacheTtlMs = 2000;
+    private long cacheMaxEntries = 10000;
+    // Max searches of one /search/batch request in flight at once
+    private int batchParallelism = 16;
+    // Hybrid searches: LINEAR (weighted sum of closeness and BM25) or RRF, and the weights
+    private HybridFusion hybridFusion = HybridFusion.LINEAR;
+    private double hybridVectorWeight = 1.0;
+    private double hybridTextWeight = 1.0;
+    // Exact re-ranking in the service: candidates fetched per requested hit, capped at Vespa's default maxHits
+    private boolean rerankEnabled = false;
+    private int rerankCandidatesFactor = 4;
+    private int rerankMaxCandidates = 400;
+    // MMR over re-ranked hits: 1.0 ranks on relevance only, lower values favor diverse hits
+    private double mmrLambda = 1.0;
+}
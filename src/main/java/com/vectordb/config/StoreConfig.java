@@ -0,0 +1,24 @@
+package com.vectordb.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "store")
+public class StoreConfig {
+    // "vespa", "hnsw" (in-process) or "ivf" (memory-mapped files)
+    private String type = "vespa";
+    // In-process HNSW graph parameters
+    private int hnswM = 16;
+    private int hnswEfConstruction = 200;
+    private int hnswEfSearch = 64;
+    // Filters accepting a smaller share of the nodes search exactly instead of walking the graph
+    private double hnswApproximateThreshold = 0.05;
+    // Memory-mapped IVF store
+    private String ivfDirectory = "data/ivf";
+    private int ivfLists = 256;
+    private int ivfNprobe = 8;
+    private int ivfTrainingSize = 8192;
+}
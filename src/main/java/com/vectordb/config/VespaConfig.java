@@ -1,5 +1,7 @@
 package com.vectordb.config;
 
+import com.vectordb.model.Quantization;
+import com.vectordb.model.TensorCellType;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
@@ -16,6 +18,29 @@ public class VespaConfig {
     private String privateKeyPath;
     private int connectionTimeout = 5000;
     private int readTimeout = 30000;
+    // Connection pools (classic client for writes and health, async client for searches)
+    private int maxConnections = 100;
+    private int maxConnectionsPerRoute = 20;
+    private int asyncMaxConnections = 1000;
+    // Batch feed settings (vespa-feed-client, HTTP/2)
+    private int feedConnections = 4;
+    private int feedMaxStreamsPerConnection = 128;
+    private int feedMaxInFlight = 1024;
+    private int feedTimeout = 60000;
+    // Tensor wire format: hex cells (compact) or JSON number arrays
+    private boolean hexTensorEncoding = true;
+    // Cell type of the float embedding fields (FLOAT or BFLOAT16); must match embedding.sd
+    private TensorCellType tensorCellType = TensorCellType.FLOAT;
+    // Quantized embedding copy the HNSW index runs over (NONE, INT8, BINARY)
+    private Quantization quantization = Quantization.NONE;
+    // When searching a quantized or coarse copy: default targetHits as a multiple of the
+    // limit, and hits per content node re-ranked on the full-precision embedding
+    private int rerankTargetHitsFactor = 4;
+    private int rerankCount = 100;
+    // Write the schema generated from these settings here at startup, e.g. vespa-app/schemas/embedding.sd
+    private String schemaOutput;
+    // Document summary class used for search hits; "lean" leaves out the embedding tensor
+    private String summaryClass = "lean";
     
     public String getDocumentEndpoint() {
         return endpoint + "/document/v1";
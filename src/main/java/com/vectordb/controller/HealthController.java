@@ -52,7 +52,7 @@ public class HealthController {
     public ResponseEntity<Map<String, Object>> readiness() {
         HealthResponse health = healthService.getHealth();
         
-        // Application is ready if both app and vespa are up
+        // Application is ready if both app and the vector store are up
         boolean isReady = health.getComponents().values().stream()
                 .allMatch(c -> "UP".equals(c.getStatus()));
         
@@ -70,17 +70,17 @@ public class HealthController {
     }
 
     /**
-     * Database (Vespa) specific health check.
+     * Database (vector store) specific health check.
      */
     @GetMapping("/db")
     public ResponseEntity<HealthResponse.ComponentHealth> databaseHealth() {
         HealthResponse health = healthService.getHealth();
-        HealthResponse.ComponentHealth vespaHealth = health.getComponents().get("vespa");
+        HealthResponse.ComponentHealth storeHealth = health.getComponents().get(healthService.getStoreComponentName());
         
-        if (vespaHealth != null && "UP".equals(vespaHealth.getStatus())) {
-            return ResponseEntity.ok(vespaHealth);
+        if (storeHealth != null && "UP".equals(storeHealth.getStatus())) {
+            return ResponseEntity.ok(storeHealth);
         } else {
-            return ResponseEntity.status(503).body(vespaHealth);
+            return ResponseEntity.status(503).body(storeHealth);
         }
     }
 }
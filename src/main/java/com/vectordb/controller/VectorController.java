@@ -1,19 +1,32 @@
 package com.vectordb.controller;
 
+import com.vectordb.config.IngestConfig;
 import com.vectordb.dto.*;
 import com.vectordb.model.ContentType;
+import com.vectordb.model.SearchField;
+import com.vectordb.model.SearchMode;
+import com.vectordb.service.BulkImportService;
 import com.vectordb.service.DataLoaderService;
 import com.vectordb.service.VectorService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -23,6 +36,10 @@ public class VectorController {
 
     private final VectorService vectorService;
     private final DataLoaderService dataLoaderService;
+    private final BulkImportService bulkImportService;
+    private final IngestConfig ingestConfig;
+
+    private static final String NDJSON = "application/x-ndjson";
 
     /**
      * POST endpoint to store text content with embedding.
@@ -44,6 +61,73 @@ public class VectorController {
         }
     }
 
+    /**
+     * POST endpoint to store a batch of documents in one call.
+     * Writes are pipelined to Vespa and each document gets its own result.
+     */
+    @PostMapping("/embed/batch")
+    public ResponseEntity<BatchEmbeddingResponse> embedBatch(@Valid @RequestBody BatchEmbeddingRequest request) {
+        log.info("Received batch embedding request with {} documents", request.getDocuments().size());
+
+        BatchEmbeddingResponse response = vectorService.storeEmbeddings(request.getDocuments());
+
+        if (response.getSuccessCount() > 0 || response.getTotalDocuments() == 0) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+
+    /**
+     * PATCH endpoint to change metadata of one document without re-embedding it.
+     * Only the fields present in the body are changed.
+     */
+    @PatchMapping("/{id}")
+    public CompletableFuture<ResponseEntity<UpdateResponse>> updateDocument(
+            @PathVariable String id, @RequestBody UpdateRequest request) {
+        log.info("Received metadata update for document: {}", id);
+
+        return vectorService.updateFields(id, request).thenApply(response -> {
+            if (response.isSuccess()) {
+                return ResponseEntity.ok(response);
+            } else if (!response.isFound()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            } else {
+                return ResponseEntity.internalServerError().body(response);
+            }
+        });
+    }
+
+    /**
+     * PATCH endpoint to change metadata of many documents in one call, e.g. for a
+     * recategorisation. Each update gets its own result.
+     */
+    @PatchMapping
+    public ResponseEntity<BatchUpdateResponse> updateDocuments(@Valid @RequestBody BatchUpdateRequest request) {
+        log.info("Received batch metadata update for {} documents", request.getUpdates().size());
+
+        return ResponseEntity.ok(vectorService.updateFieldsBatch(request.getUpdates()));
+    }
+
+    /**
+     * POST endpoint for streaming bulk import.
+     * Reads one EmbeddingRequest per line and streams one EmbeddingResponse per line back.
+     * An import runs as long as the upload does, so it has its own timeout,
+     * {@code ingest.import-timeout-ms}, instead of the MVC async request timeout.
+     */
+    @PostMapping(value = "/import", consumes = NDJSON, produces = NDJSON)
+    public WebAsyncTask<Void> importNdjson(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        log.info("Received NDJSON import request");
+
+        InputStream input = request.getInputStream();
+        response.setContentType(NDJSON);
+        return new WebAsyncTask<>(ingestConfig.getImportTimeoutMs(), () -> {
+            bulkImportService.importNdjson(input, response.getOutputStream());
+            return null;
+        });
+    }
+
     /**
      * POST endpoint to store text content.
      */
@@ -140,11 +224,17 @@ public class VectorController {
      * By default returns only TEXT results unless includeMedia=true or preferredType is specified.
      */
     @GetMapping("/search")
-    public ResponseEntity<SearchResponse> searchSimilar(
+    public CompletableFuture<ResponseEntity<SearchResponse>> searchSimilar(
             @RequestParam String query,
             @RequestParam(required = false) ContentType preferredType,
             @RequestParam(defaultValue = "false") boolean includeMedia,
-            @RequestParam(defaultValue = "5") int limit) {
+            @RequestParam(defaultValue = "5") int limit,
+            @RequestParam(required = false) List<SearchField> fields,
+            @RequestParam(required = false) List<String> categories,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdUntil,
+            @RequestParam(required = false) SearchMode mode,
+            @RequestParam(required = false) Boolean rerank) {
         
         log.info("Search request - query: {}, preferredType: {}, includeMedia: {}", 
                 query, preferredType, includeMedia);
@@ -154,21 +244,36 @@ public class VectorController {
                 .preferredType(preferredType)
                 .includeMedia(includeMedia)
                 .limit(limit)
+                .fields(fields)
+                .categories(categories)
+                .createdFrom(createdFrom)
+                .createdUntil(createdUntil)
+                .mode(mode)
+                .rerank(rerank)
                 .build();
         
-        SearchResponse response = vectorService.searchSimilar(request);
-        return ResponseEntity.ok(response);
+        return vectorService.searchSimilarAsync(request).thenApply(ResponseEntity::ok);
     }
 
     /**
      * POST endpoint for similarity search with body.
      */
     @PostMapping("/search")
-    public ResponseEntity<SearchResponse> searchSimilarPost(@Valid @RequestBody SearchRequest request) {
+    public CompletableFuture<ResponseEntity<SearchResponse>> searchSimilarPost(@Valid @RequestBody SearchRequest request) {
         log.info("Search request - query: {}", request.getQuery());
         
-        SearchResponse response = vectorService.searchSimilar(request);
-        return ResponseEntity.ok(response);
+        return vectorService.searchSimilarAsync(request).thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * POST endpoint to run many searches in one call.
+     * Queries are embedded together and searched concurrently; results keep request order.
+     */
+    @PostMapping("/search/batch")
+    public CompletableFuture<ResponseEntity<BatchSearchResponse>> searchBatch(@Valid @RequestBody BatchSearchRequest request) {
+        log.info("Received batch search request with {} queries", request.getQueries().size());
+
+        return vectorService.searchBatchAsync(request.getQueries()).thenApply(ResponseEntity::ok);
     }
 
     /**
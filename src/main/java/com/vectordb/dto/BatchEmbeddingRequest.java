@@ -0,0 +1,19 @@
+package com.vectordb.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchEmbeddingRequest {
+    @NotEmpty(message = "At least one document is required")
+    private List<@Valid EmbeddingRequest> documents;
+}
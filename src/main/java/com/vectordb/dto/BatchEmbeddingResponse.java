@@ -0,0 +1,20 @@
+package com.vectordb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchEmbeddingResponse {
+    private List<EmbeddingResponse> results;
+    private int totalDocuments;
+    private int successCount;
+    private int failCount;
+    private long elapsedMs;
+}
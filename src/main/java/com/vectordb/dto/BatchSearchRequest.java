@@ -0,0 +1,21 @@
+package com.vectordb.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSearchRequest {
+    @NotEmpty(message = "At least one query is required")
+    @Size(max = 1000, message = "At most 1000 queries per batch")
+    private List<@Valid SearchRequest> queries;
+}
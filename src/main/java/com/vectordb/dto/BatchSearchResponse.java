@@ -0,0 +1,30 @@
+package com.vectordb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSearchResponse {
+    // One entry per query, in request order
+    private List<QueryResult> results;
+    private int totalQueries;
+    private long embeddingTimeMs;
+    private long elapsedMs;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class QueryResult {
+        private SearchResponse response;
+        // From dispatch to completion, including any wait for a free parallelism slot
+        private long elapsedMs;
+    }
+}
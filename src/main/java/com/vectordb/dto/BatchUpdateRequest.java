@@ -0,0 +1,20 @@
+package com.vectordb.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchUpdateRequest {
+    @NotEmpty(message = "At least one update is required")
+    @Size(max = 10000, message = "At most 10000 updates per request")
+    private List<UpdateRequest> updates;
+}
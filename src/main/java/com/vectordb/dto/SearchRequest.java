@@ -1,14 +1,26 @@
 package com.vectordb.dto;
 
 import com.vectordb.model.ContentType;
+import com.vectordb.model.HybridFusion;
+import com.vectordb.model.SearchField;
+import com.vectordb.model.SearchMode;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+import java.util.List;
+
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class SearchRequest {
@@ -22,4 +34,49 @@ public class SearchRequest {
     
     @Builder.Default
     private boolean includeMedia = false;
+    
+    // Fields to return for each hit; all summary fields when empty
+    private List<SearchField> fields;
+
+    // Attribute filters, applied inside the nearest neighbor search; unset means no restriction
+    @Size(max = 100, message = "At most 100 categories per search")
+    private List<@NotNull String> categories;
+
+    // created_at range: createdFrom inclusive, createdUntil exclusive
+    private Instant createdFrom;
+
+    private Instant createdUntil;
+
+    // Bare or full ("id:vectordb:embedding::...") document ids
+    @Size(max = 1000, message = "At most 1000 ids per search")
+    private List<@NotBlank String> ids;
+
+    // Nearest neighbor tuning; targetHits defaults to the limit
+    @Min(value = 1, message = "targetHits must be positive")
+    private Integer targetHits;
+
+    @Min(value = 0, message = "exploreAdditionalHits must not be negative")
+    private Integer exploreAdditionalHits;
+
+    // False forces an exact scan over the filtered documents
+    private Boolean approximate;
+
+    // HYBRID also matches the query text with BM25; fusion and weights default to the search.hybrid-* settings
+    private SearchMode mode;
+
+    private HybridFusion fusion;
+
+    @PositiveOrZero(message = "vectorWeight must not be negative")
+    private Double vectorWeight;
+
+    @PositiveOrZero(message = "textWeight must not be negative")
+    private Double textWeight;
+
+    // Over-fetch and re-rank exactly in the service; defaults to search.rerank-enabled. Ignored for HYBRID
+    private Boolean rerank;
+
+    // MMR trade-off for re-ranked searches, 1.0 = relevance only; defaults to search.mmr-lambda
+    @DecimalMin(value = "0.0", message = "mmrLambda must be between 0 and 1")
+    @DecimalMax(value = "1.0", message = "mmrLambda must be between 0 and 1")
+    private Double mmrLambda;
 }
@@ -1,5 +1,6 @@
 package com.vectordb.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.vectordb.model.ContentType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -30,5 +31,9 @@ public class SearchResponse {
         private String description;
         private String mediaUrl;
         private double score;
+
+        // Candidate embedding for the in-service re-rank; removed before the response is returned
+        @JsonIgnore
+        private float[] embedding;
     }
 }
@@ -0,0 +1,24 @@
+package com.vectordb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Metadata fields to change on one document. Fields left out are not changed.
+ * {@code id} is taken from the path for single updates and required in batches.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpdateRequest {
+    private String id;
+
+    private String category;
+
+    private String description;
+
+    private String mediaUrl;
+}
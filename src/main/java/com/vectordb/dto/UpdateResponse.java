@@ -0,0 +1,17 @@
+package com.vectordb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpdateResponse {
+    private String id;
+    private String message;
+    private boolean success;
+    private boolean found;
+}
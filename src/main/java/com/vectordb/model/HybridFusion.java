@@ -0,0 +1,21 @@
+package com.vectordb.model;
+
+/**
+ * How a hybrid search combines the vector and BM25 scores.
+ */
+public enum HybridFusion {
+    // Weighted sum of closeness and BM25
+    LINEAR("hybrid"),
+    // Reciprocal rank fusion of the two rankings, over the top hits of the weighted sum
+    RRF("hybrid_rrf");
+
+    private final String rankProfile;
+
+    HybridFusion(String rankProfile) {
+        this.rankProfile = rankProfile;
+    }
+
+    public String getRankProfile() {
+        return rankProfile;
+    }
+}
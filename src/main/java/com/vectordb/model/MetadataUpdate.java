@@ -0,0 +1,35 @@
+package com.vectordb.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Partial update of a document's metadata. Null fields are left unchanged; the content,
+ * and with it the embedding, cannot be changed this way.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetadataUpdate {
+    private String category;
+    private String description;
+    private String mediaUrl;
+
+    public boolean isEmpty() {
+        return category == null && description == null && mediaUrl == null;
+    }
+
+    /**
+     * Copy of {@code document} with this update applied.
+     */
+    public VectorDocument applyTo(VectorDocument document) {
+        return document.toBuilder()
+                .category(category != null ? category : document.getCategory())
+                .description(description != null ? description : document.getDescription())
+                .mediaUrl(mediaUrl != null ? mediaUrl : document.getMediaUrl())
+                .build();
+    }
+}
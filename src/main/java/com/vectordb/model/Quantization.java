@@ -0,0 +1,21 @@
+package com.vectordb.model;
+
+/**
+ * Quantized copy of the embedding that the Vespa HNSW index is built on. The full-precision
+ * field is then only read to re-rank the top hits. Must match the schema that is deployed.
+ */
+public enum Quantization {
+    // No quantized field; HNSW runs over the float embedding
+    NONE,
+    // One int8 cell per dimension, angular distance: 4x smaller than float
+    INT8,
+    // One sign bit per dimension packed into int8 cells, hamming distance: 32x smaller
+    BINARY;
+
+    /**
+     * Cells of the quantized tensor for an embedding with {@code dimension} values.
+     */
+    public int cells(int dimension) {
+        return this == BINARY ? (dimension + 7) / 8 : dimension;
+    }
+}
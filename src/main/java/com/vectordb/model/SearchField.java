@@ -0,0 +1,22 @@
+package com.vectordb.model;
+
+/**
+ * Document fields a search can return. Document id and score are always included.
+ */
+public enum SearchField {
+    CONTENT("content"),
+    CONTENT_TYPE("content_type"),
+    CATEGORY("category"),
+    DESCRIPTION("description"),
+    MEDIA_URL("media_url");
+
+    private final String vespaName;
+
+    SearchField(String vespaName) {
+        this.vespaName = vespaName;
+    }
+
+    public String getVespaName() {
+        return vespaName;
+    }
+}
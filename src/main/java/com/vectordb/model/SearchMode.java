@@ -0,0 +1,11 @@
+package com.vectordb.model;
+
+/**
+ * How a search matches and ranks documents.
+ */
+public enum SearchMode {
+    // Nearest neighbors of the query embedding
+    SEMANTIC,
+    // Nearest neighbors OR keyword matches of the query text, ranked on vector closeness and BM25
+    HYBRID
+}
@@ -0,0 +1,27 @@
+package com.vectordb.model;
+
+/**
+ * Cell value types of the Vespa dense tensors this service writes and queries.
+ * Must match the cell type declared for the field in the schema.
+ */
+public enum TensorCellType {
+    FLOAT("float", 4),
+    BFLOAT16("bfloat16", 2),
+    INT8("int8", 1);
+
+    private final String vespaName;
+    private final int bytes;
+
+    TensorCellType(String vespaName, int bytes) {
+        this.vespaName = vespaName;
+        this.bytes = bytes;
+    }
+
+    public String getVespaName() {
+        return vespaName;
+    }
+
+    public int getBytes() {
+        return bytes;
+    }
+}
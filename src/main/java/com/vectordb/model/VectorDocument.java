@@ -6,17 +6,16 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.Instant;
-import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class VectorDocument {
     private String id;
     private String content;
     private ContentType contentType;
-    private List<Float> embedding;
+    private float[] embedding;
     private String category;
     private String mediaUrl;
     private Instant createdAt;
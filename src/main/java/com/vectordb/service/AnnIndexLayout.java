@@ -0,0 +1,97 @@
+package com.vectordb.service;
+
+import com.vectordb.config.EmbeddingConfig;
+import com.vectordb.config.VespaConfig;
+import com.vectordb.model.Quantization;
+import com.vectordb.model.TensorCellType;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Which Vespa field the nearest neighbor search runs over, and how a full embedding becomes
+ * its cells. It is the float {@code embedding}, or a cheaper copy that the rank profile
+ * re-ranks on the full vector:
+ * <ul>
+ *   <li>{@code embedding_coarse}: the reduced-dimension vector from {@link DimensionReducer}</li>
+ *   <li>{@code embedding_quantized}: the int8 or binary copy of the full vector, or of the
+ *       coarse one when both are configured</li>
+ * </ul>
+ * Documents, queries and the generated schema all use this class, so they always agree.
+ */
+@Component
+@RequiredArgsConstructor
+public class AnnIndexLayout {
+
+    private final VespaConfig vespaConfig;
+    private final EmbeddingConfig embeddingConfig;
+    private final DimensionReducer dimensionReducer;
+
+    /**
+     * The float and coarse embeddings are unit length, so int8 cells would round every value
+     * to -1, 0 or 1. An int8 index is what {@code vespa.quantization=INT8} is for.
+     */
+    @PostConstruct
+    public void validate() {
+        if (vespaConfig.getTensorCellType() == TensorCellType.INT8) {
+            throw new IllegalStateException("vespa.tensor-cell-type must be FLOAT or BFLOAT16; "
+                    + "use vespa.quantization=INT8 for an int8 index");
+        }
+    }
+
+    public boolean isQuantized() {
+        return vespaConfig.getQuantization() != Quantization.NONE;
+    }
+
+    public boolean isCoarse() {
+        return dimensionReducer.isEnabled();
+    }
+
+    /**
+     * Whether the search runs over a lossy copy and the top hits are re-ranked on the full vector.
+     */
+    public boolean isReranked() {
+        return isQuantized() || isCoarse();
+    }
+
+    public String field() {
+        return isQuantized() ? "embedding_quantized" : isCoarse() ? "embedding_coarse" : "embedding";
+    }
+
+    public String queryInput() {
+        return isQuantized() ? "q_quantized" : isCoarse() ? "q_coarse" : "q";
+    }
+
+    public int fullDimension() {
+        return embeddingConfig.getDimension();
+    }
+
+    /**
+     * Values per vector before quantization.
+     */
+    public int dimension() {
+        return isCoarse() ? dimensionReducer.getDimension() : fullDimension();
+    }
+
+    /**
+     * Cells of the indexed tensor: packed bytes for binary quantization, one per value otherwise.
+     */
+    public int cells() {
+        return vespaConfig.getQuantization().cells(dimension());
+    }
+
+    public String distanceMetric() {
+        return vespaConfig.getQuantization() == Quantization.BINARY ? "hamming" : "angular";
+    }
+
+    public float[] coarse(float[] embedding) {
+        return dimensionReducer.reduce(embedding);
+    }
+
+    /**
+     * Quantized cells of the indexed vector for {@code embedding}.
+     */
+    public byte[] quantized(float[] embedding) {
+        return EmbeddingQuantizer.quantize(isCoarse() ? coarse(embedding) : embedding, vespaConfig.getQuantization());
+    }
+}
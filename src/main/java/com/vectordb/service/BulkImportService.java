@@ -0,0 +1,200 @@
+package com.vectordb.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.vectordb.config.IngestConfig;
+import com.vectordb.config.VespaConfig;
+import com.vectordb.dto.EmbeddingRequest;
+import com.vectordb.dto.EmbeddingResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Streams newline-delimited {@link EmbeddingRequest} records through parse, batched embed and feed,
+ * writing one {@link EmbeddingResponse} per record back as NDJSON in input order.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkImportService {
+
+    private static final int FLUSH_INTERVAL = 100;
+
+    private final VectorService vectorService;
+    private final VespaConfig vespaConfig;
+    private final IngestConfig ingestConfig;
+    private final ObjectMapper objectMapper;
+
+    // Chunks block on embedding and on ingest backpressure, so they get their own threads
+    // instead of starving the common pool's hedge, retry and re-rank work
+    private final ExecutorService chunkExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Wait for submitted chunks to be handed to the store.
+     */
+    @PreDestroy
+    public void close() {
+        chunkExecutor.close();
+    }
+
+    /**
+     * Import records from {@code input} and stream results to {@code output}.
+     * Parsed records are embedded and submitted in chunks of {@code ingest.import-batch-size}
+     * on another thread while the next chunk is read. At most {@code vespa.feed-max-in-flight}
+     * records (and at least two chunks) are held between reading and writing their result, so
+     * memory use does not grow with the size of the upload. The totals are logged when the
+     * import finishes.
+     */
+    public void importNdjson(InputStream input, OutputStream output) throws IOException {
+        long startTime = System.currentTimeMillis();
+        int chunkSize = Math.max(1, ingestConfig.getImportBatchSize());
+        int window = Math.max(2 * chunkSize, vespaConfig.getFeedMaxInFlight());
+        Deque<CompletableFuture<EmbeddingResponse>> pending = new ArrayDeque<>(window);
+        ObjectWriter writer = objectMapper.writerFor(EmbeddingResponse.class);
+        Counts summary = new Counts();
+
+        Chunk chunk = new Chunk(chunkSize);
+        CompletableFuture<Void> submitted = CompletableFuture.completedFuture(null);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            pending.addLast(parseRecord(line, lineNumber, chunk));
+            if (chunk.requests.size() == chunkSize) {
+                submitted = submitChunk(chunk, submitted);
+                chunk = new Chunk(chunkSize);
+            }
+
+            // Write whatever is already done; block on the oldest record once the window is full.
+            // The window holds at least two chunks, so the oldest record is never in the open one.
+            while (!pending.isEmpty() && (pending.peekFirst().isDone() || pending.size() >= window)) {
+                writeResult(pending.pollFirst().join(), writer, output, summary);
+            }
+        }
+        if (!chunk.requests.isEmpty()) {
+            submitChunk(chunk, submitted);
+        }
+
+        while (!pending.isEmpty()) {
+            writeResult(pending.pollFirst().join(), writer, output, summary);
+        }
+        output.flush();
+
+        summary.elapsedMs = System.currentTimeMillis() - startTime;
+        log.info("NDJSON import finished: {} records, {} succeeded, {} failed in {} ms",
+                summary.total, summary.succeeded, summary.total - summary.succeeded, summary.elapsedMs);
+    }
+
+    /**
+     * Parse one record into the open chunk. Returns its result future, already complete
+     * for an invalid record.
+     */
+    private CompletableFuture<EmbeddingResponse> parseRecord(String line, long lineNumber, Chunk chunk) {
+        EmbeddingRequest request;
+        try {
+            request = objectMapper.readValue(line, EmbeddingRequest.class);
+        } catch (JsonProcessingException e) {
+            return failed(null, "Invalid record at line " + lineNumber + ": " + e.getOriginalMessage());
+        }
+
+        if (request.getContent() == null || request.getContent().isBlank()) {
+            return failed(request, "Content is required (line " + lineNumber + ")");
+        }
+        CompletableFuture<EmbeddingResponse> result = new CompletableFuture<>();
+        chunk.requests.add(request);
+        chunk.results.add(result);
+        return result;
+    }
+
+    /**
+     * Embed and submit a chunk on the service's own executor once the previous chunk is
+     * submitted, so chunks reach the model one at a time and in order.
+     */
+    private CompletableFuture<Void> submitChunk(Chunk chunk, CompletableFuture<Void> previous) {
+        return previous.handleAsync((ignored, error) -> {
+            List<CompletableFuture<EmbeddingResponse>> stored;
+            try {
+                stored = vectorService.storeEmbeddingsAsync(chunk.requests);
+            } catch (RuntimeException e) {
+                log.error("Error submitting import chunk: {}", e.getMessage(), e);
+                for (int i = 0; i < chunk.requests.size(); i++) {
+                    chunk.results.get(i).complete(failure(chunk.requests.get(i), "Error: " + e.getMessage()));
+                }
+                return null;
+            }
+            for (int i = 0; i < stored.size(); i++) {
+                EmbeddingRequest request = chunk.requests.get(i);
+                CompletableFuture<EmbeddingResponse> result = chunk.results.get(i);
+                stored.get(i).whenComplete((response, storeError) -> result.complete(storeError == null ? response
+                        : failure(request, "Error: " + storeError.getMessage())));
+            }
+            return null;
+        }, chunkExecutor);
+    }
+
+    private CompletableFuture<EmbeddingResponse> failed(EmbeddingRequest request, String message) {
+        return CompletableFuture.completedFuture(failure(request, message));
+    }
+
+    private static EmbeddingResponse failure(EmbeddingRequest request, String message) {
+        return EmbeddingResponse.builder()
+                .content(request != null ? request.getContent() : null)
+                .contentType(request != null ? request.getContentType() : null)
+                .category(request != null ? request.getCategory() : null)
+                .message(message)
+                .success(false)
+                .build();
+    }
+
+    private void writeResult(EmbeddingResponse result, ObjectWriter writer, OutputStream output,
+                             Counts summary) throws IOException {
+        output.write(writer.writeValueAsBytes(result));
+        output.write('\n');
+
+        summary.total++;
+        if (result.isSuccess()) {
+            summary.succeeded++;
+        }
+        if (summary.total % FLUSH_INTERVAL == 0) {
+            output.flush();
+        }
+    }
+
+    private static class Chunk {
+        private final List<EmbeddingRequest> requests;
+        private final List<CompletableFuture<EmbeddingResponse>> results;
+
+        Chunk(int size) {
+            this.requests = new ArrayList<>(size);
+            this.results = new ArrayList<>(size);
+        }
+    }
+
+    private static class Counts {
+        private long total;
+        private long succeeded;
+        private long elapsedMs;
+    }
+}
@@ -0,0 +1,114 @@
+package com.vectordb.service;
+
+import com.vectordb.store.StoreUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulkhead for one class of backend traffic: an adaptive concurrency limit plus a circuit
+ * breaker. Each class has its own guard, so a saturated ingest path cannot take the
+ * permits or trip the breaker of searches. Callers take a {@link Permit} before the call
+ * and release it exactly once with the outcome.
+ */
+class CallGuard {
+
+    private final String name;
+    private final AimdLimiter limiter;
+    private final CircuitBreaker breaker;
+    private final Counter limitRejections;
+    private final Counter circuitRejections;
+
+    CallGuard(String name, AimdLimiter limiter, CircuitBreaker breaker, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.limiter = limiter;
+        this.breaker = breaker;
+        this.limitRejections = Counter.builder("vectordb.guard.rejected")
+                .tag("guard", name).tag("reason", "limit").register(meterRegistry);
+        this.circuitRejections = Counter.builder("vectordb.guard.rejected")
+                .tag("guard", name).tag("reason", "circuit").register(meterRegistry);
+        Gauge.builder("vectordb.guard.limit", limiter, AimdLimiter::getLimit)
+                .tag("guard", name).register(meterRegistry);
+        Gauge.builder("vectordb.guard.in.flight", limiter, AimdLimiter::getInFlight)
+                .tag("guard", name).register(meterRegistry);
+        Gauge.builder("vectordb.guard.circuit.open", breaker, b -> b.getState() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .tag("guard", name).register(meterRegistry);
+    }
+
+    /**
+     * Take a permit without waiting.
+     *
+     * @throws StoreUnavailableException if the circuit is open or the limit is reached
+     */
+    Permit tryAcquire() {
+        checkCircuit();
+        if (!limiter.tryAcquire()) {
+            breaker.cancel();
+            limitRejections.increment();
+            throw new StoreUnavailableException(name + " concurrency limit reached", 1000);
+        }
+        return new Permit();
+    }
+
+    /**
+     * Take a permit, waiting up to {@code maxWaitMs} for one. Used by batch producers,
+     * which should slow down rather than fail while the backend is busy.
+     *
+     * @throws StoreUnavailableException if the circuit is open or no permit freed up in time
+     */
+    Permit acquire(long maxWaitMs) throws InterruptedException {
+        checkCircuit();
+        boolean acquired;
+        try {
+            acquired = limiter.acquire(TimeUnit.MILLISECONDS.toNanos(maxWaitMs));
+        } catch (InterruptedException e) {
+            breaker.cancel();
+            throw e;
+        }
+        if (!acquired) {
+            breaker.cancel();
+            limitRejections.increment();
+            throw new StoreUnavailableException(name + " concurrency limit reached", 1000);
+        }
+        return new Permit();
+    }
+
+    String getName() {
+        return name;
+    }
+
+    CircuitBreaker.State getCircuitState() {
+        return breaker.getState();
+    }
+
+    int getLimit() {
+        return limiter.getLimit();
+    }
+
+    private void checkCircuit() {
+        if (!breaker.tryAcquire()) {
+            circuitRejections.increment();
+            throw new StoreUnavailableException(name + " circuit is open", breaker.retryAfterMs());
+        }
+    }
+
+    class Permit {
+        private final long startTime = System.nanoTime();
+        private boolean released;
+
+        /**
+         * Report the call outcome. A failure is a transport error, timeout or a status that
+         * signals overload (5xx, 429); client errors count as success.
+         */
+        void release(boolean success) {
+            if (released) {
+                return;
+            }
+            released = true;
+            limiter.release(System.nanoTime() - startTime, success);
+            breaker.onResult(success);
+        }
+    }
+}
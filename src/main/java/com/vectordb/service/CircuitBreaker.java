@@ -0,0 +1,121 @@
+package com.vectordb.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Count-based circuit breaker. Closed, it tracks the outcome of the last {@code window}
+ * calls and opens once the failure rate reaches the threshold. Open, it rejects calls until
+ * {@code openMs} has passed, then lets {@code halfOpenCalls} probes through: all succeeding
+ * closes it again, any failing re-opens it.
+ */
+class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureRatePercent;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    private final boolean[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    CircuitBreaker(int failureRatePercent, int window, int minimumCalls, long openMs, int halfOpenCalls) {
+        this.failureRatePercent = failureRatePercent;
+        this.minimumCalls = Math.min(minimumCalls, window);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.halfOpenCalls = halfOpenCalls;
+        this.outcomes = new boolean[window];
+    }
+
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probesStarted = 0;
+            probesSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= halfOpenCalls) {
+                return false;
+            }
+            probesStarted++;
+        }
+        return true;
+    }
+
+    /**
+     * Give back a permit that was not used for a call.
+     */
+    synchronized void cancel() {
+        if (state == State.HALF_OPEN && probesStarted > 0) {
+            probesStarted--;
+        }
+    }
+
+    synchronized void onResult(boolean success) {
+        if (state == State.HALF_OPEN) {
+            if (!success) {
+                open();
+            } else if (++probesSucceeded >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+
+        if (recorded == outcomes.length) {
+            if (!outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = success;
+        if (!success) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+
+        if (recorded >= minimumCalls && failures * 100 >= failureRatePercent * recorded) {
+            open();
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Time until an open breaker lets probes through; 0 when not open.
+     */
+    synchronized long retryAfterMs() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(openNanos - (System.nanoTime() - openedAt)));
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+    }
+}
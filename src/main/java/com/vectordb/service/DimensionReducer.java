@@ -0,0 +1,125 @@
+package com.vectordb.service;
+
+import com.vectordb.config.EmbeddingConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Produces the coarse, reduced-dimension copy of an embedding that the first-phase nearest
+ * neighbor search runs over. Without a projection file the coarse vector is the first
+ * {@code embedding.coarse-dimension} values, renormalized (Matryoshka truncation, meant for
+ * models trained that way). With one, it is the PCA projection of the centered embedding.
+ * <p>
+ * Projection files are little-endian: {@code [int components][int dimension]}, the
+ * {@code dimension} floats of the mean, then {@code components} rows of {@code dimension} floats.
+ */
+@Slf4j
+@Component
+public class DimensionReducer {
+
+    private final int sourceDimension;
+    private final int dimension;
+    private final float[] mean;
+    private final float[][] components;
+
+    public DimensionReducer(EmbeddingConfig embeddingConfig) {
+        this.sourceDimension = embeddingConfig.getDimension();
+        this.dimension = embeddingConfig.getCoarseDimension();
+        if (dimension < 0 || dimension >= sourceDimension) {
+            throw new IllegalStateException("embedding.coarse-dimension must be between 0 and "
+                    + (sourceDimension - 1) + " but is " + dimension);
+        }
+
+        String projectionPath = embeddingConfig.getCoarseProjectionPath();
+        if (dimension == 0 || !StringUtils.hasText(projectionPath)) {
+            this.mean = null;
+            this.components = null;
+        } else {
+            ByteBuffer buffer = read(Path.of(projectionPath));
+            int rows = buffer.getInt();
+            int columns = buffer.getInt();
+            if (rows != dimension || columns != sourceDimension) {
+                throw new IllegalStateException("Projection " + projectionPath + " maps " + columns + " to " + rows
+                        + " dimensions, expected " + sourceDimension + " to " + dimension);
+            }
+            this.mean = new float[columns];
+            buffer.asFloatBuffer().get(mean);
+            buffer.position(buffer.position() + 4 * columns);
+            this.components = new float[rows][columns];
+            for (float[] component : components) {
+                buffer.asFloatBuffer().get(component);
+                buffer.position(buffer.position() + 4 * columns);
+            }
+        }
+
+        if (dimension > 0) {
+            log.info("Coarse embeddings: {} of {} dimensions by {}", dimension, sourceDimension,
+                    components != null ? "PCA projection" : "prefix truncation");
+        }
+    }
+
+    public boolean isEnabled() {
+        return dimension > 0;
+    }
+
+    /**
+     * Dimension of the coarse vectors.
+     */
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Unit-length coarse copy of {@code embedding}.
+     */
+    public float[] reduce(float[] embedding) {
+        if (embedding.length != sourceDimension) {
+            throw new IllegalArgumentException(
+                    "Expected dimension " + sourceDimension + " but got " + embedding.length);
+        }
+        float[] reduced = new float[dimension];
+        if (components == null) {
+            System.arraycopy(embedding, 0, reduced, 0, dimension);
+        } else {
+            for (int row = 0; row < dimension; row++) {
+                float[] component = components[row];
+                float sum = 0;
+                for (int i = 0; i < sourceDimension; i++) {
+                    sum += (embedding[i] - mean[i]) * component[i];
+                }
+                reduced[row] = sum;
+            }
+        }
+        return normalize(reduced);
+    }
+
+    private static float[] normalize(float[] vector) {
+        double sumSquares = 0;
+        for (float v : vector) {
+            sumSquares += v * v;
+        }
+        if (sumSquares > 0) {
+            float scale = (float) (1.0 / Math.sqrt(sumSquares));
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    private static ByteBuffer read(Path path) {
+        try {
+            return ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read projection " + path, e);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.vectordb.service;
+
+import ai.djl.MalformedModelException;
+import ai.djl.huggingface.translator.TextEmbeddingTranslatorFactory;
+import ai.djl.inference.Predictor;
+import ai.djl.repository.zoo.Criteria;
+import ai.djl.repository.zoo.ModelNotFoundException;
+import ai.djl.repository.zoo.ZooModel;
+import ai.djl.translate.TranslateException;
+import com.vectordb.config.EmbeddingConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Sentence-transformer inference (e.g. all-MiniLM-L6-v2) on CPU through DJL.
+ * The model directory must contain the traced model and its {@code tokenizer.json};
+ * nothing is downloaded at runtime. Concurrent requests are coalesced into
+ * micro-batches so each forward pass embeds up to {@code embedding.batch-size} sentences.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "embedding", name = "provider", havingValue = "djl")
+public class DjlEmbeddingProvider implements EmbeddingProvider {
+
+    private final EmbeddingConfig embeddingConfig;
+
+    private ZooModel<String, float[]> model;
+    private final List<Predictor<String, float[]>> predictors = new ArrayList<>();
+    private MicroBatcher<String, float[]> batcher;
+
+    @PostConstruct
+    public void init() throws IOException, ModelNotFoundException, MalformedModelException {
+        if (!StringUtils.hasText(embeddingConfig.getModelPath())) {
+            throw new IllegalStateException("embedding.model-path is required for the djl provider");
+        }
+        Path modelPath = Path.of(embeddingConfig.getModelPath());
+        if (!Files.isDirectory(modelPath)) {
+            throw new IllegalStateException("Embedding model directory not found: " + modelPath);
+        }
+
+        // Never reach out to the DJL model zoo or native library mirrors
+        System.setProperty("ai.djl.offline", "true");
+
+        log.info("Loading embedding model {} from {} on engine {}",
+                embeddingConfig.getModel(), modelPath, embeddingConfig.getEngine());
+
+        Criteria<String, float[]> criteria = Criteria.builder()
+                .setTypes(String.class, float[].class)
+                .optModelPath(modelPath)
+                .optEngine(embeddingConfig.getEngine())
+                .optTranslatorFactory(new TextEmbeddingTranslatorFactory())
+                .optArgument("pooling", "mean")
+                .optArgument("normalize", "true")
+                .optArgument("truncation", "true")
+                .optArgument("maxLength", String.valueOf(embeddingConfig.getMaxSequenceLength()))
+                .build();
+        this.model = criteria.loadModel();
+
+        List<Function<List<String>, List<float[]>>> handlers = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, embeddingConfig.getInferenceThreads()); i++) {
+            Predictor<String, float[]> predictor = model.newPredictor();
+            predictors.add(predictor);
+            handlers.add(texts -> predict(predictor, texts));
+        }
+
+        this.batcher = new MicroBatcher<>("embedding-batcher",
+                embeddingConfig.getBatchSize(),
+                Duration.ofMillis(embeddingConfig.getMaxBatchWaitMs()),
+                embeddingConfig.getQueueCapacity(),
+                handlers);
+
+        int dimension = embed("dimension probe").length;
+        if (dimension != embeddingConfig.getDimension()) {
+            // Every feed would fail against the schema's tensor, so refuse to start
+            cleanup();
+            throw new IllegalStateException("Model produces " + dimension
+                    + "-dim embeddings but embedding.dimension is " + embeddingConfig.getDimension());
+        }
+        log.info("Embedding model loaded ({} dims, batch size {}, {} inference threads)",
+                dimension, embeddingConfig.getBatchSize(), predictors.size());
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        if (batcher != null) {
+            batcher.close();
+        }
+        predictors.forEach(Predictor::close);
+        if (model != null) {
+            model.close();
+        }
+    }
+
+    @Override
+    public float[] embed(String text) {
+        return join(batcher.submit(text), deadline());
+    }
+
+    @Override
+    public List<float[]> embedBatch(List<String> texts) {
+        List<CompletableFuture<float[]>> pending = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            pending.add(batcher.submit(text));
+        }
+        long deadline = deadline();
+        List<float[]> embeddings = new ArrayList<>(texts.size());
+        for (CompletableFuture<float[]> future : pending) {
+            embeddings.add(join(future, deadline));
+        }
+        return embeddings;
+    }
+
+    @Override
+    public String getName() {
+        return "djl";
+    }
+
+    private List<float[]> predict(Predictor<String, float[]> predictor, List<String> texts) {
+        try {
+            return predictor.batchPredict(texts);
+        } catch (TranslateException e) {
+            throw new IllegalStateException("Embedding inference failed: " + e.getMessage(), e);
+        }
+    }
+
+    private long deadline() {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(embeddingConfig.getInferenceTimeoutMs());
+    }
+
+    /**
+     * Wait for an embedding until {@code deadline}, so a stuck or dead inference worker fails
+     * the request instead of holding its thread forever.
+     */
+    private float[] join(CompletableFuture<float[]> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Embedding inference failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new IllegalStateException("Embedding inference timed out after "
+                    + embeddingConfig.getInferenceTimeoutMs() + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for embeddings", e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.vectordb.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.vectordb.config.VespaConfig;
+import com.vectordb.model.MetadataUpdate;
+import com.vectordb.model.VectorDocument;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * Writes the Vespa document API body for a {@link VectorDocument}, or for a partial metadata
+ * update. The embedding is written as a hex cell string, or as a plain value array when hex
+ * encoding is disabled. When the search runs over a coarse or quantized copy, that copy is
+ * written next to it.
+ */
+public class DocumentJsonWriter {
+
+    private final JsonFactory jsonFactory;
+    private final VespaConfig vespaConfig;
+    private final AnnIndexLayout annIndexLayout;
+
+    public DocumentJsonWriter(JsonFactory jsonFactory, VespaConfig vespaConfig, AnnIndexLayout annIndexLayout) {
+        this.jsonFactory = jsonFactory;
+        this.vespaConfig = vespaConfig;
+        this.annIndexLayout = annIndexLayout;
+    }
+
+    public String write(VectorDocument document) throws IOException {
+        StringWriter json = new StringWriter(256 + document.getEmbedding().length * 8);
+        try (JsonGenerator generator = jsonFactory.createGenerator(json)) {
+            generator.writeStartObject();
+            generator.writeObjectFieldStart("fields");
+            generator.writeStringField("content", document.getContent());
+            generator.writeStringField("content_type", document.getContentType().name());
+            generator.writeStringField("category", document.getCategory() != null ? document.getCategory() : "");
+            generator.writeStringField("description", document.getDescription() != null ? document.getDescription() : "");
+            generator.writeStringField("media_url", document.getMediaUrl() != null ? document.getMediaUrl() : "");
+            generator.writeNumberField("created_at", document.getCreatedAt().toEpochMilli());
+            generator.writeStringField("doc_id", document.getId());
+
+            // Add embedding as tensor
+            generator.writeObjectFieldStart("embedding");
+            generator.writeFieldName("values");
+            writeTensorValues(generator, document.getEmbedding());
+            generator.writeEndObject();
+
+            if (annIndexLayout.isQuantized()) {
+                generator.writeObjectFieldStart(annIndexLayout.field());
+                generator.writeFieldName("values");
+                writeTensorValues(generator, annIndexLayout.quantized(document.getEmbedding()));
+                generator.writeEndObject();
+            } else if (annIndexLayout.isCoarse()) {
+                generator.writeObjectFieldStart(annIndexLayout.field());
+                generator.writeFieldName("values");
+                writeTensorValues(generator, annIndexLayout.coarse(document.getEmbedding()));
+                generator.writeEndObject();
+            }
+
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+        return json.toString();
+    }
+
+    /**
+     * Partial update body assigning only the fields set in {@code update}; the embedding
+     * is not sent.
+     */
+    public String writeUpdate(MetadataUpdate update) throws IOException {
+        StringWriter json = new StringWriter(128);
+        try (JsonGenerator generator = jsonFactory.createGenerator(json)) {
+            generator.writeStartObject();
+            generator.writeObjectFieldStart("fields");
+            writeAssign(generator, "category", update.getCategory());
+            writeAssign(generator, "description", update.getDescription());
+            writeAssign(generator, "media_url", update.getMediaUrl());
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+        return json.toString();
+    }
+
+    private static void writeAssign(JsonGenerator generator, String field, String value) throws IOException {
+        if (value != null) {
+            generator.writeObjectFieldStart(field);
+            generator.writeStringField("assign", value);
+            generator.writeEndObject();
+        }
+    }
+
+    private void writeTensorValues(JsonGenerator generator, float[] values) throws IOException {
+        if (vespaConfig.isHexTensorEncoding()) {
+            generator.writeString(TensorEncoder.toHex(values, vespaConfig.getTensorCellType()));
+        } else {
+            generator.writeArray(toDoubles(values), 0, values.length);
+        }
+    }
+
+    private void writeTensorValues(JsonGenerator generator, byte[] values) throws IOException {
+        if (vespaConfig.isHexTensorEncoding()) {
+            generator.writeString(TensorEncoder.toHex(values));
+        } else {
+            generator.writeStartArray();
+            for (byte value : values) {
+                generator.writeNumber(value);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private static double[] toDoubles(float[] values) {
+        double[] doubles = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            doubles[i] = values[i];
+        }
+        return doubles;
+    }
+}
@@ -0,0 +1,152 @@
+package com.vectordb.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vectordb.config.EmbeddingConfig;
+import com.vectordb.model.ContentType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of generated embeddings, keyed by a 128-bit hash of the content type
+ * and content. Case is folded out of the key only when the provider declares itself
+ * case-insensitive. Capacity is measured in bytes and eviction is W-TinyLFU.
+ * Hit, miss and eviction counts are published as {@code cache.*} metrics with {@code cache=embedding}.
+ * Cached arrays are shared between callers and must not be modified.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmbeddingCache {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final EmbeddingConfig embeddingConfig;
+    private final EmbeddingProvider embeddingProvider;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<Key, float[]> cache;
+    private boolean foldCase;
+
+    @PostConstruct
+    public void init() {
+        if (!embeddingConfig.isCacheEnabled()) {
+            log.info("Embedding cache disabled");
+            return;
+        }
+
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumWeight(embeddingConfig.getCacheMaxBytes())
+                .recordStats();
+        if (embeddingConfig.getCacheTtlSeconds() > 0) {
+            builder.expireAfterWrite(Duration.ofSeconds(embeddingConfig.getCacheTtlSeconds()));
+        }
+        this.cache = builder
+                .<Key, float[]>weigher((key, embedding) -> ENTRY_OVERHEAD_BYTES + embedding.length * Float.BYTES)
+                .build();
+
+        this.foldCase = embeddingProvider.isCaseInsensitive();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "embedding");
+        log.info("Embedding cache enabled with {} bytes capacity (case-insensitive keys: {})",
+                embeddingConfig.getCacheMaxBytes(), foldCase);
+    }
+
+    /**
+     * Return the cached embedding or compute it. Concurrent misses for the same key
+     * share a single computation.
+     */
+    public float[] get(ContentType contentType, String content, Function<String, float[]> generator) {
+        if (cache == null) {
+            return generator.apply(content);
+        }
+        return cache.get(key(contentType, content), key -> generator.apply(content));
+    }
+
+    /**
+     * Batch variant of {@link #get}. Only the misses are passed to {@code generator},
+     * in one call, and results are returned in input order.
+     */
+    public List<float[]> getAll(ContentType contentType, List<String> contents,
+                                Function<List<String>, List<float[]>> generator) {
+        if (cache == null) {
+            return generator.apply(contents);
+        }
+
+        Map<Key, String> keys = new LinkedHashMap<>();
+        List<Key> order = new ArrayList<>(contents.size());
+        for (String content : contents) {
+            Key key = key(contentType, content);
+            keys.putIfAbsent(key, content);
+            order.add(key);
+        }
+
+        Map<Key, float[]> found = cache.getAll(keys.keySet(), missing -> {
+            List<Key> missingKeys = new ArrayList<>(missing);
+            List<String> texts = new ArrayList<>(missingKeys.size());
+            for (Key key : missingKeys) {
+                texts.add(keys.get(key));
+            }
+            List<float[]> generated = generator.apply(texts);
+            Map<Key, float[]> loaded = new LinkedHashMap<>();
+            for (int i = 0; i < missingKeys.size(); i++) {
+                loaded.put(missingKeys.get(i), generated.get(i));
+            }
+            return loaded;
+        });
+
+        List<float[]> results = new ArrayList<>(order.size());
+        for (Key key : order) {
+            results.add(found.get(key));
+        }
+        return results;
+    }
+
+    private Key key(ContentType contentType, String content) {
+        ByteBuffer hash = hash(contentType, foldCase ? content.toLowerCase(Locale.ROOT) : content);
+        return new Key(hash.getLong(), hash.getLong());
+    }
+
+    /**
+     * 128-bit hash of the content type and the exact content, as 32 hex digits. Case is
+     * always kept, so contents that differ only in case hash differently.
+     */
+    public static String contentHash(ContentType contentType, String content) {
+        ByteBuffer hash = hash(contentType, content);
+        return String.format("%016x%016x", hash.getLong(), hash.getLong());
+    }
+
+    private static ByteBuffer hash(ContentType contentType, String content) {
+        MessageDigest digest = DIGEST.get();
+        digest.update(contentType.name().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        return ByteBuffer.wrap(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private record Key(long high, long low) {
+    }
+}
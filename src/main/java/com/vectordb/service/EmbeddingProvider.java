@@ -0,0 +1,40 @@
+package com.vectordb.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Backend that turns text into an embedding vector.
+ * Implementations are selected with the {@code embedding.provider} property.
+ */
+public interface EmbeddingProvider {
+
+    /**
+     * Embed a single text. The returned vector is L2-normalized.
+     */
+    float[] embed(String text);
+
+    /**
+     * Embed several texts at once, preserving input order.
+     */
+    default List<float[]> embedBatch(List<String> texts) {
+        List<float[]> embeddings = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            embeddings.add(embed(text));
+        }
+        return embeddings;
+    }
+
+    /**
+     * Whether texts that differ only in case always embed identically. When true the
+     * embedding cache folds case out of its key; otherwise the key is the exact text.
+     */
+    default boolean isCaseInsensitive() {
+        return false;
+    }
+
+    /**
+     * Short name reported in health details.
+     */
+    String getName();
+}
@@ -0,0 +1,55 @@
+package com.vectordb.service;
+
+import com.vectordb.model.Quantization;
+
+/**
+ * Derives the quantized copy of an embedding that is fed next to the float vector and sent
+ * with each query, so documents and queries are quantized the same way.
+ */
+public final class EmbeddingQuantizer {
+
+    private EmbeddingQuantizer() {
+    }
+
+    public static byte[] quantize(float[] embedding, Quantization quantization) {
+        return switch (quantization) {
+            case INT8 -> toInt8(embedding);
+            case BINARY -> toBinary(embedding);
+            case NONE -> throw new IllegalArgumentException("Quantization is not enabled");
+        };
+    }
+
+    /**
+     * Scale so the largest magnitude becomes 127, then round. Scaling does not change the
+     * angle between vectors, so only the rounding error affects angular distances.
+     */
+    static byte[] toInt8(float[] embedding) {
+        float max = 0;
+        for (float value : embedding) {
+            max = Math.max(max, Math.abs(value));
+        }
+        byte[] cells = new byte[embedding.length];
+        if (max == 0) {
+            return cells;
+        }
+        float scale = Byte.MAX_VALUE / max;
+        for (int i = 0; i < embedding.length; i++) {
+            cells[i] = (byte) Math.round(embedding[i] * scale);
+        }
+        return cells;
+    }
+
+    /**
+     * One bit per value, set when the value is positive, most significant bit first. This is
+     * the layout of Vespa's {@code pack_bits}, so hamming distance counts differing signs.
+     */
+    static byte[] toBinary(float[] embedding) {
+        byte[] cells = new byte[(embedding.length + 7) / 8];
+        for (int i = 0; i < embedding.length; i++) {
+            if (embedding[i] > 0) {
+                cells[i >>> 3] |= (byte) (0x80 >>> (i & 7));
+            }
+        }
+        return cells;
+    }
+}
@@ -1,17 +1,14 @@
 package com.vectordb.service;
 
 import com.vectordb.config.EmbeddingConfig;
+import com.vectordb.model.ContentType;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 @Slf4j
 @Service
@@ -19,18 +16,14 @@ import java.util.Random;
 public class EmbeddingService {
 
     private final EmbeddingConfig embeddingConfig;
-    private Random random;
-    private MessageDigest digest;
+    private final EmbeddingProvider embeddingProvider;
+    private final EmbeddingCache embeddingCache;
+    private final VectorMetrics metrics;
 
     @PostConstruct
     public void init() {
-        log.info("Initializing embedding service with dimension: {}", embeddingConfig.getDimension());
-        this.random = new Random(42);
-        try {
-            this.digest = MessageDigest.getInstance("SHA-256");
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256 not available", e);
-        }
+        log.info("Initializing embedding service with dimension: {} (provider: {})",
+                embeddingConfig.getDimension(), embeddingProvider.getName());
         log.info("Embedding service initialized successfully");
     }
 
@@ -39,66 +32,78 @@ public class EmbeddingService {
         log.info("Cleaning up embedding service resources");
     }
 
+    /**
+     * Stable identifier of a piece of content: the hash the embedding cache is built on,
+     * taken over the exact content.
+     */
+    public String contentId(ContentType contentType, String content) {
+        return EmbeddingCache.contentHash(contentType, content);
+    }
+
     /**
      * Generate embeddings for text content.
-     * Uses a deterministic hash-based approach for consistent embeddings.
+     * Returned arrays may be shared through the embedding cache and must not be modified.
      */
-    public List<Float> generateTextEmbedding(String text) {
+    public float[] generateTextEmbedding(String text) {
         log.debug("Generating embedding for text: {}", text.substring(0, Math.min(50, text.length())));
-        return generateDeterministicEmbedding(text, embeddingConfig.getDimension());
+        return metrics.record(VectorMetrics.EMBED,
+                () -> embeddingCache.get(ContentType.TEXT, text, embeddingProvider::embed),
+                "content_type", ContentType.TEXT.name(), "batch", "false");
     }
 
     /**
-     * Generate embeddings for image content (using description/path).
+     * Generate embeddings for several texts in one pass, preserving input order.
      */
-    public List<Float> generateImageEmbedding(String imageDescription) {
-        log.debug("Generating embedding for image: {}", imageDescription);
-        return generateDeterministicEmbedding("IMAGE:" + imageDescription, embeddingConfig.getDimension());
+    public List<float[]> generateTextEmbeddings(List<String> texts) {
+        log.debug("Generating embeddings for {} texts", texts.size());
+        return metrics.record(VectorMetrics.EMBED,
+                () -> embeddingCache.getAll(ContentType.TEXT, texts, embeddingProvider::embedBatch),
+                "content_type", ContentType.TEXT.name(), "batch", "true");
     }
 
     /**
-     * Generate embeddings for video content (using description/path).
+     * Batch variant of the per-type generators: one pass for several contents of one type,
+     * preserving input order. Image and video contents get the same prefix as single ones.
      */
-    public List<Float> generateVideoEmbedding(String videoDescription) {
-        log.debug("Generating embedding for video: {}", videoDescription);
-        return generateDeterministicEmbedding("VIDEO:" + videoDescription, embeddingConfig.getDimension());
+    public List<float[]> generateEmbeddings(ContentType contentType, List<String> contents) {
+        if (contentType == ContentType.TEXT) {
+            return generateTextEmbeddings(contents);
+        }
+        log.debug("Generating embeddings for {} {} descriptions", contents.size(), contentType);
+        String prefix = contentType.name() + ":";
+        return metrics.record(VectorMetrics.EMBED,
+                () -> embeddingCache.getAll(contentType, contents, missing -> embeddingProvider.embedBatch(
+                        missing.stream().map(content -> prefix + content).toList())),
+                "content_type", contentType.name(), "batch", "true");
     }
 
     /**
-     * Generate deterministic embedding based on content hash.
-     * This ensures same content always produces same embedding.
+     * Generate embeddings for image content (using description/path).
      */
-    private List<Float> generateDeterministicEmbedding(String content, int dimension) {
-        byte[] hash = digest.digest(content.toLowerCase().getBytes());
-        Random seededRandom = new Random(bytesToLong(hash));
-        
-        List<Float> embedding = new ArrayList<>(dimension);
-        double sumSquares = 0;
-        
-        for (int i = 0; i < dimension; i++) {
-            float value = (float) seededRandom.nextGaussian();
-            embedding.add(value);
-            sumSquares += value * value;
-        }
-        
-        // Normalize the embedding vector
-        double norm = Math.sqrt(sumSquares);
-        for (int i = 0; i < dimension; i++) {
-            embedding.set(i, (float) (embedding.get(i) / norm));
-        }
-        
-        return embedding;
+    public float[] generateImageEmbedding(String imageDescription) {
+        log.debug("Generating embedding for image: {}", imageDescription);
+        return metrics.record(VectorMetrics.EMBED,
+                () -> embeddingCache.get(ContentType.IMAGE, imageDescription,
+                        description -> embeddingProvider.embed("IMAGE:" + description)),
+                "content_type", ContentType.IMAGE.name(), "batch", "false");
     }
 
-    private long bytesToLong(byte[] bytes) {
-        long value = 0;
-        for (int i = 0; i < Math.min(8, bytes.length); i++) {
-            value = (value << 8) | (bytes[i] & 0xff);
-        }
-        return value;
+    /**
+     * Generate embeddings for video content (using description/path).
+     */
+    public float[] generateVideoEmbedding(String videoDescription) {
+        log.debug("Generating embedding for video: {}", videoDescription);
+        return metrics.record(VectorMetrics.EMBED,
+                () -> embeddingCache.get(ContentType.VIDEO, videoDescription,
+                        description -> embeddingProvider.embed("VIDEO:" + description)),
+                "content_type", ContentType.VIDEO.name(), "batch", "false");
     }
 
     public int getEmbeddingDimension() {
         return embeddingConfig.getDimension();
     }
+
+    public String getProviderName() {
+        return embeddingProvider.getName();
+    }
 }
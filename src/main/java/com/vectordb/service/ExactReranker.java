@@ -0,0 +1,175 @@
+package com.vectordb.service;
+
+import com.vectordb.dto.SearchResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Re-scores over-fetched search candidates on their full-precision embeddings, so the store
+ * can run a cheap approximate search and the service still returns exact cosine order.
+ * Scores are Vespa's angular closeness, {@code 1 / (1 + angle)}, the scale the stores use.
+ * <p>
+ * With {@code mmrLambda < 1} the hits are then picked by maximal marginal relevance: each
+ * next hit maximizes {@code lambda * cos(query, hit) - (1 - lambda) * max cos(hit, picked)},
+ * trading relevance for results that are not near duplicates of each other.
+ */
+public final class ExactReranker {
+
+    private ExactReranker() {
+    }
+
+    /**
+     * The best {@code limit} candidates, with embeddings removed. Candidates are returned in
+     * store order when any of them came back without an embedding.
+     */
+    public static List<SearchResponse.SearchResult> rerank(float[] query, List<SearchResponse.SearchResult> candidates,
+                                                           int limit, double mmrLambda) {
+        int count = candidates.size();
+        boolean complete = candidates.stream()
+                .allMatch(hit -> hit.getEmbedding() != null && hit.getEmbedding().length == query.length);
+        if (!complete) {
+            List<SearchResponse.SearchResult> hits = new ArrayList<>(candidates.subList(0, Math.min(limit, count)));
+            hits.forEach(hit -> hit.setEmbedding(null));
+            return hits;
+        }
+
+        float queryNorm = VectorOps.norm(query);
+        float[] norms = new float[count];
+        float[] cosines = new float[count];
+        for (int i = 0; i < count; i++) {
+            float[] embedding = candidates.get(i).getEmbedding();
+            norms[i] = VectorOps.norm(embedding);
+            cosines[i] = cosine(VectorOps.dot(query, embedding), queryNorm, norms[i]);
+        }
+
+        int[] order = mmrLambda < 1.0
+                ? maximalMarginalRelevance(candidates, cosines, norms, Math.min(limit, count), mmrLambda)
+                : byCosine(cosines, Math.min(limit, count));
+
+        List<SearchResponse.SearchResult> hits = new ArrayList<>(order.length);
+        for (int index : order) {
+            SearchResponse.SearchResult hit = candidates.get(index);
+            hit.setScore(closeness(cosines[index]));
+            hit.setEmbedding(null);
+            hits.add(hit);
+        }
+        return hits;
+    }
+
+    /**
+     * Indices of the {@code limit} highest cosines, best first, ties in candidate order. A
+     * min-heap of {@code limit} indices keeps the best so far, with the worst at the root.
+     */
+    static int[] byCosine(float[] cosines, int limit) {
+        int[] heap = new int[limit];
+        int size = 0;
+        for (int i = 0; i < cosines.length; i++) {
+            if (size < limit) {
+                heap[size] = i;
+                siftUp(heap, size++, cosines);
+            } else if (limit > 0 && worse(heap[0], i, cosines)) {
+                heap[0] = i;
+                siftDown(heap, 0, size, cosines);
+            }
+        }
+        int[] order = new int[size];
+        for (int n = size - 1; n >= 0; n--) {
+            order[n] = heap[0];
+            heap[0] = heap[n];
+            siftDown(heap, 0, n, cosines);
+        }
+        return order;
+    }
+
+    /**
+     * Whether candidate {@code a} ranks below {@code b}.
+     */
+    private static boolean worse(int a, int b, float[] cosines) {
+        int compared = Float.compare(cosines[a], cosines[b]);
+        return compared < 0 || (compared == 0 && a > b);
+    }
+
+    private static void siftUp(int[] heap, int index, float[] cosines) {
+        int node = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!worse(node, heap[parent], cosines)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = node;
+    }
+
+    private static void siftDown(int[] heap, int index, int size, float[] cosines) {
+        int node = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && worse(heap[child + 1], heap[child], cosines)) {
+                child++;
+            }
+            if (!worse(heap[child], node, cosines)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = node;
+    }
+
+    /**
+     * Greedy MMR. The highest similarity of every remaining candidate to the picked hits is
+     * kept up to date, so each pick costs one dot product per remaining candidate.
+     */
+    private static int[] maximalMarginalRelevance(List<SearchResponse.SearchResult> candidates, float[] cosines,
+                                                  float[] norms, int limit, double lambda) {
+        int count = cosines.length;
+        int[] picked = new int[limit];
+        boolean[] taken = new boolean[count];
+        float[] maxSimilarity = new float[count];
+        Arrays.fill(maxSimilarity, Float.NEGATIVE_INFINITY);
+
+        for (int n = 0; n < limit; n++) {
+            int best = -1;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < count; i++) {
+                if (taken[i]) {
+                    continue;
+                }
+                double value = n == 0 ? cosines[i] : lambda * cosines[i] - (1.0 - lambda) * maxSimilarity[i];
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = i;
+                }
+            }
+            picked[n] = best;
+            taken[best] = true;
+
+            float[] pickedEmbedding = candidates.get(best).getEmbedding();
+            for (int i = 0; i < count; i++) {
+                if (!taken[i]) {
+                    float similarity = cosine(VectorOps.dot(candidates.get(i).getEmbedding(), pickedEmbedding),
+                            norms[i], norms[best]);
+                    maxSimilarity[i] = Math.max(maxSimilarity[i], similarity);
+                }
+            }
+        }
+        return picked;
+    }
+
+    private static float cosine(float dot, float normA, float normB) {
+        float denominator = normA * normB;
+        return denominator > 0 ? dot / denominator : 0f;
+    }
+
+    private static double closeness(float cosine) {
+        double clamped = Math.max(-1.0, Math.min(1.0, cosine));
+        return 1.0 / (1.0 + Math.acos(clamped));
+    }
+}
@@ -0,0 +1,89 @@
+package com.vectordb.service;
+
+import com.vectordb.config.EmbeddingConfig;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+
+/**
+ * Deterministic hash-based embeddings. Same content always produces the same vector,
+ * which is enough for demos and tests but carries no semantic meaning.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "embedding", name = "provider", havingValue = "hash", matchIfMissing = true)
+public class HashEmbeddingProvider implements EmbeddingProvider {
+
+    /**
+     * MessageDigest and Random are not thread-safe, so each request thread gets its own.
+     * Reseeding a per-thread Random yields the same sequence as a freshly seeded one.
+     */
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+    private static final ThreadLocal<Random> RANDOM = ThreadLocal.withInitial(Random::new);
+
+    private final EmbeddingConfig embeddingConfig;
+
+    @Override
+    public float[] embed(String text) {
+        return generateDeterministicEmbedding(text, embeddingConfig.getDimension());
+    }
+
+    /**
+     * The content is lower-cased before hashing.
+     */
+    @Override
+    public boolean isCaseInsensitive() {
+        return true;
+    }
+
+    @Override
+    public String getName() {
+        return "hash";
+    }
+
+    /**
+     * Generate deterministic embedding based on content hash.
+     * This ensures same content always produces same embedding.
+     */
+    private float[] generateDeterministicEmbedding(String content, int dimension) {
+        byte[] hash = DIGEST.get().digest(content.toLowerCase().getBytes(StandardCharsets.UTF_8));
+        Random seededRandom = RANDOM.get();
+        seededRandom.setSeed(bytesToLong(hash));
+
+        float[] embedding = new float[dimension];
+        double sumSquares = 0;
+
+        for (int i = 0; i < dimension; i++) {
+            float value = (float) seededRandom.nextGaussian();
+            embedding[i] = value;
+            sumSquares += value * value;
+        }
+
+        // Normalize the embedding vector in place
+        double norm = Math.sqrt(sumSquares);
+        for (int i = 0; i < dimension; i++) {
+            embedding[i] = (float) (embedding[i] / norm);
+        }
+
+        return embedding;
+    }
+
+    private long bytesToLong(byte[] bytes) {
+        long value = 0;
+        for (int i = 0; i < Math.min(8, bytes.length); i++) {
+            value = (value << 8) | (bytes[i] & 0xff);
+        }
+        return value;
+    }
+}
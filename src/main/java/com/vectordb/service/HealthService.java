@@ -1,6 +1,8 @@
 package com.vectordb.service;
 
 import com.vectordb.dto.HealthResponse;
+import com.vectordb.store.StoreStatus;
+import com.vectordb.store.VectorStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -14,7 +16,7 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class HealthService {
 
-    private final VespaService vespaService;
+    private final VectorStore vectorStore;
     private final EmbeddingService embeddingService;
 
     public HealthResponse getHealth() {
@@ -23,8 +25,8 @@ public class HealthService {
         // Check application health
         components.put("application", checkApplicationHealth());
 
-        // Check Vespa health
-        components.put("vespa", checkVespaHealth());
+        // Check vector store health
+        components.put(vectorStore.getName(), checkStoreHealth());
 
         // Check embedding service health
         components.put("embedding", checkEmbeddingHealth());
@@ -53,29 +55,37 @@ public class HealthService {
                 .build();
     }
 
-    private HealthResponse.ComponentHealth checkVespaHealth() {
+    /**
+     * Name of the health component that reports the vector store.
+     */
+    public String getStoreComponentName() {
+        return vectorStore.getName();
+    }
+
+    private HealthResponse.ComponentHealth checkStoreHealth() {
+        String name = vectorStore.getName();
         try {
-            VespaService.VespaStatus status = vespaService.getStatus();
+            StoreStatus status = vectorStore.getStatus();
             
-            Map<String, Object> details = new HashMap<>();
+            Map<String, Object> details = new HashMap<>(status.getDetails());
             details.put("connected", status.isConnected());
-            details.put("vespaStatus", status.getStatus());
+            details.put(name + "Status", status.getStatus());
             
             if (status.isConnected()) {
                 return HealthResponse.ComponentHealth.builder()
                         .status("UP")
-                        .message("Vespa is connected and healthy")
+                        .message(name + " is connected and healthy")
                         .details(details)
                         .build();
             } else {
                 return HealthResponse.ComponentHealth.builder()
                         .status("DOWN")
-                        .message("Vespa connection failed: " + status.getMessage())
+                        .message(name + " connection failed: " + status.getMessage())
                         .details(details)
                         .build();
             }
         } catch (Exception e) {
-            log.error("Error checking Vespa health: {}", e.getMessage());
+            log.error("Error checking {} health: {}", name, e.getMessage());
             return HealthResponse.ComponentHealth.builder()
                     .status("DOWN")
                     .message("Error: " + e.getMessage())
@@ -93,6 +103,7 @@ public class HealthService {
                     .message("Embedding service is operational")
                     .details(Map.of(
                             "embeddingDimension", dimension,
+                            "provider", embeddingService.getProviderName(),
                             "modelStatus", "ready"
                     ))
                     .build();
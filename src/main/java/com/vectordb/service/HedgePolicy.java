@@ -0,0 +1,78 @@
+package com.vectordb.service;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when a slow search gets a duplicate request. The hedge delay is a percentile of the
+ * last {@value #WINDOW} search latencies, clamped to [minDelayMs, maxDelayMs]; until enough
+ * samples exist it is maxDelayMs. A token budget keeps hedges to at most {@code maxRatio} of
+ * searches, so a backend that is slow across the board does not get double the load.
+ */
+class HedgePolicy {
+
+    private static final int WINDOW = 1024;
+    private static final int MIN_SAMPLES = 100;
+    private static final int REFRESH_EVERY = 64;
+    private static final double MAX_TOKENS = 10;
+
+    private final double percentile;
+    private final long minDelayMs;
+    private final long maxDelayMs;
+    private final double maxRatio;
+
+    private final long[] latencies = new long[WINDOW];
+    private int next;
+    private int recorded;
+    private int sinceRefresh;
+    private volatile long delayMs;
+    private double tokens;
+
+    HedgePolicy(double percentile, long minDelayMs, long maxDelayMs, double maxRatio) {
+        this.percentile = percentile;
+        this.minDelayMs = minDelayMs;
+        this.maxDelayMs = Math.max(minDelayMs, maxDelayMs);
+        this.maxRatio = maxRatio;
+        this.delayMs = this.maxDelayMs;
+    }
+
+    /**
+     * Record the latency of an answered search. The percentile is recomputed every
+     * {@value #REFRESH_EVERY} samples rather than on each call.
+     */
+    synchronized void record(long latencyNanos) {
+        latencies[next] = latencyNanos;
+        next = (next + 1) % WINDOW;
+        recorded = Math.min(recorded + 1, WINDOW);
+        if (++sinceRefresh >= REFRESH_EVERY && recorded >= MIN_SAMPLES) {
+            sinceRefresh = 0;
+            long[] sorted = Arrays.copyOf(latencies, recorded);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(recorded - 1, Math.ceil(percentile * recorded) - 1);
+            long millis = TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, index)]);
+            delayMs = Math.max(minDelayMs, Math.min(millis, maxDelayMs));
+        }
+    }
+
+    long delayMs() {
+        return delayMs;
+    }
+
+    /**
+     * Credit the budget for one search.
+     */
+    synchronized void onRequest() {
+        tokens = Math.min(tokens + maxRatio, MAX_TOKENS);
+    }
+
+    /**
+     * Spend budget for one hedge; false if the budget is used up.
+     */
+    synchronized boolean tryHedge() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+}
@@ -0,0 +1,215 @@
+package com.vectordb.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vectordb.config.JournalConfig;
+import com.vectordb.model.VectorDocument;
+import com.vectordb.store.StoreResult;
+import com.vectordb.store.VectorStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-ahead journal in front of the vector store. Documents are acknowledged once they are
+ * in the journal; a background feeder delivers them to the store in batches, in order, and
+ * only then advances the journal's acknowledged position. Whatever was not delivered before
+ * a shutdown or crash is fed again on the next start, so delivery is at least once; a write
+ * of the same document ID is idempotent in every store.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "journal", name = "enabled", havingValue = "true")
+public class IngestJournal {
+
+    private final JournalConfig journalConfig;
+    private final VectorStore vectorStore;
+    private final ObjectMapper objectMapper;
+    private final VectorMetrics metrics;
+    private final MeterRegistry meterRegistry;
+    private final RecentDocumentIds recentDocumentIds;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+
+    private JournalSegments segments;
+    private RetryPolicy redeliveryBackoff;
+    private Counter fedCounter;
+    private Counter droppedCounter;
+    private Counter redeliveredCounter;
+    private volatile boolean running;
+    private Thread feeder;
+
+    @PostConstruct
+    public void init() throws IOException {
+        segments = new JournalSegments(Path.of(journalConfig.getDirectory()),
+                journalConfig.getSegmentBytes(), journalConfig.isFsync());
+        redeliveryBackoff = new RetryPolicy(Integer.MAX_VALUE,
+                journalConfig.getRetryBaseDelayMs(), journalConfig.getRetryMaxDelayMs());
+        pending.set(segments.count(segments.acknowledged()));
+
+        Gauge.builder("vectordb.journal.pending", pending, AtomicLong::get).register(meterRegistry);
+        fedCounter = meterRegistry.counter("vectordb.journal.fed");
+        droppedCounter = meterRegistry.counter("vectordb.journal.dropped");
+        redeliveredCounter = meterRegistry.counter("vectordb.journal.redelivered");
+
+        if (pending.get() > 0) {
+            log.info("Replaying {} journaled documents to the {} store", pending.get(), vectorStore.getName());
+        }
+        running = true;
+        feeder = new Thread(this::feed, "journal-feeder");
+        feeder.setDaemon(true);
+        feeder.start();
+    }
+
+    /**
+     * Append a document to the journal. Once this returns the document will reach the store,
+     * unless the store rejects it outright.
+     */
+    public void append(VectorDocument document) throws IOException {
+        long startTime = System.nanoTime();
+        segments.append(objectMapper.writeValueAsBytes(document));
+        pending.incrementAndGet();
+        metrics.record(VectorMetrics.JOURNAL_APPEND, startTime);
+
+        lock.lock();
+        try {
+            appended.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getPending() {
+        return pending.get();
+    }
+
+    private void feed() {
+        JournalSegments.Position position = segments.acknowledged();
+        while (running) {
+            try {
+                List<JournalSegments.Entry> batch = segments.read(position, journalConfig.getBatchSize());
+                if (batch.isEmpty()) {
+                    awaitAppend(position);
+                    continue;
+                }
+                if (!deliver(batch)) {
+                    break;
+                }
+                position = batch.get(batch.size() - 1).next();
+                segments.acknowledge(position);
+                pending.addAndGet(-batch.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException | RuntimeException e) {
+                log.error("Journal feeder error: {}", e.getMessage(), e);
+                sleepQuietly(journalConfig.getRetryMaxDelayMs());
+            }
+        }
+    }
+
+    /**
+     * Feed one batch until every document is stored or rejected. Documents the store could
+     * not take are redelivered with backoff for as long as the journal runs.
+     *
+     * @return false if the journal was stopped before the batch was delivered
+     */
+    private boolean deliver(List<JournalSegments.Entry> batch) throws InterruptedException {
+        List<VectorDocument> remaining = new ArrayList<>(batch.size());
+        for (JournalSegments.Entry entry : batch) {
+            try {
+                remaining.add(objectMapper.readValue(entry.payload(), VectorDocument.class));
+            } catch (IOException e) {
+                log.error("Dropping unreadable journal entry: {}", e.getMessage());
+                droppedCounter.increment();
+            }
+        }
+
+        for (int attempt = 1; !remaining.isEmpty(); attempt++) {
+            List<CompletableFuture<StoreResult>> results = remaining.stream()
+                    .map(vectorStore::storeDocumentAsync)
+                    .toList();
+            List<VectorDocument> retry = new ArrayList<>();
+            for (int i = 0; i < results.size(); i++) {
+                StoreResult result = results.get(i).join();
+                if (result.isSuccess()) {
+                    // Only now is a re-submission a duplicate; a rejected document can be sent again
+                    recentDocumentIds.add(remaining.get(i));
+                    fedCounter.increment();
+                } else if (result.isRetryable()) {
+                    retry.add(remaining.get(i));
+                } else {
+                    log.warn("Store rejected journaled document {}: {}", result.getDocumentId(), result.getMessage());
+                    droppedCounter.increment();
+                }
+            }
+            remaining = retry;
+
+            if (!remaining.isEmpty()) {
+                if (!running) {
+                    return false;
+                }
+                long backoffMs = redeliveryBackoff.backoffMs(attempt);
+                log.warn("{} journaled documents not accepted by the store, retrying in {} ms",
+                        remaining.size(), backoffMs);
+                redeliveredCounter.increment(remaining.size());
+                Thread.sleep(backoffMs);
+            }
+        }
+        return true;
+    }
+
+    private void awaitAppend(JournalSegments.Position position) throws InterruptedException {
+        lock.lock();
+        try {
+            if (running && segments.end().equals(position)) {
+                appended.await(1, TimeUnit.SECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stop feeding and flush the journal. Undelivered documents stay in the journal
+     * for the next start.
+     */
+    @PreDestroy
+    public void close() {
+        running = false;
+        feeder.interrupt();
+        try {
+            feeder.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        segments.force();
+        log.info("Ingest journal closed with {} documents pending", pending.get());
+    }
+}
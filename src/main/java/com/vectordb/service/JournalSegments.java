@@ -0,0 +1,296 @@
+package com.vectordb.service;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal over memory-mapped segment files of a fixed size.
+ *
+ * <ul>
+ *   <li>{@code journal-NNNNNNNNNN.seg}: records {@code [int length][int crc32c][payload]}. The
+ *       length is written last, so a zero length marks the end of the written part; a record
+ *       that does not fit starts the next segment.</li>
+ *   <li>{@code journal.ack}: {@code [long segment][int offset]}, the position up to which
+ *       records have been delivered. Segments before it are deleted.</li>
+ * </ul>
+ *
+ * Any number of threads append while one reads and acknowledges. With fsync, appends are
+ * group-committed: records are written under the append lock, and one {@code force} covers
+ * every record written before it, so concurrent appends share a flush. Readers only see
+ * records that are durable. On open, a torn record at the tail of the last segment is cleared.
+ */
+final class JournalSegments {
+
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final String ACK_FILE = "journal.ack";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("journal-(\\d+)\\.seg");
+
+    record Position(long segment, int offset) implements Comparable<Position> {
+
+        @Override
+        public int compareTo(Position other) {
+            return segment != other.segment
+                    ? Long.compare(segment, other.segment) : Integer.compare(offset, other.offset);
+        }
+    }
+
+    record Entry(byte[] payload, Position next) {
+    }
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean fsync;
+    private final ConcurrentSkipListMap<Long, MappedByteBuffer> segments = new ConcurrentSkipListMap<>();
+    private final MappedByteBuffer ackBuffer;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock forceLock = new ReentrantLock();
+
+    // Guarded by appendLock
+    private long writeSegment;
+    private int writeOffset;
+    private Position written;
+    // Durable end, advanced under forceLock; readers stop here
+    private volatile Position writeEnd;
+    private volatile Position acked;
+
+    JournalSegments(Path directory, int segmentBytes, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+        Files.createDirectories(directory);
+
+        try (FileChannel channel = FileChannel.open(directory.resolve(ACK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ackBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES + Integer.BYTES);
+            ackBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        }
+        acked = new Position(ackBuffer.getLong(0), ackBuffer.getInt(Long.BYTES));
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                long segment = Long.parseLong(matcher.group(1));
+                if (segment < acked.segment()) {
+                    Files.delete(file);
+                } else {
+                    segments.put(segment, map(segment));
+                }
+            }
+        }
+        if (segments.isEmpty()) {
+            segments.put(acked.segment(), map(acked.segment()));
+        }
+
+        writeSegment = segments.lastKey();
+        MappedByteBuffer last = segments.get(writeSegment);
+        int offset = 0;
+        for (byte[] payload; (payload = readRecord(last, offset)) != null; ) {
+            offset += RECORD_HEADER_BYTES + payload.length;
+        }
+        clearTornRecord(last, offset);
+        writeOffset = offset;
+        written = new Position(writeSegment, writeOffset);
+        writeEnd = written;
+    }
+
+    /**
+     * Append one record. With fsync on, returns once the record is forced to disk, possibly
+     * by a concurrent append's flush.
+     *
+     * @return the position just past the record
+     */
+    Position append(byte[] payload) throws IOException {
+        int size = RECORD_HEADER_BYTES + payload.length;
+        if (size > segmentBytes) {
+            throw new IllegalArgumentException(
+                    "Journal record of " + size + " bytes exceeds the segment size of " + segmentBytes);
+        }
+
+        Position end;
+        appendLock.lock();
+        try {
+            if (writeOffset + size > segmentBytes) {
+                writeSegment++;
+                writeOffset = 0;
+                segments.put(writeSegment, map(writeSegment));
+            }
+
+            MappedByteBuffer buffer = segments.get(writeSegment);
+            buffer.put(writeOffset + RECORD_HEADER_BYTES, payload);
+            buffer.putInt(writeOffset + Integer.BYTES, checksum(payload));
+            buffer.putInt(writeOffset, payload.length);
+            writeOffset += size;
+            written = new Position(writeSegment, writeOffset);
+            end = written;
+            if (!fsync) {
+                writeEnd = end;
+                return end;
+            }
+        } finally {
+            appendLock.unlock();
+        }
+
+        commit(end);
+        return end;
+    }
+
+    /**
+     * Force everything written so far, unless a flush that started after {@code end} was
+     * written already covered it. Appends that queue up behind a running flush are covered
+     * by the next one together.
+     */
+    private void commit(Position end) {
+        forceLock.lock();
+        try {
+            Position durable = writeEnd;
+            if (durable.compareTo(end) >= 0) {
+                return;
+            }
+            Position target;
+            appendLock.lock();
+            try {
+                target = written;
+            } finally {
+                appendLock.unlock();
+            }
+
+            for (long segment = durable.segment(); segment <= target.segment(); segment++) {
+                int from = segment == durable.segment() ? durable.offset() : 0;
+                int to = segment == target.segment() ? target.offset() : segmentBytes;
+                if (to > from) {
+                    segments.get(segment).force(from, to - from);
+                }
+            }
+            writeEnd = target;
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    /**
+     * Read up to {@code max} records starting at {@code from}, which must be a record boundary.
+     */
+    List<Entry> read(Position from, int max) {
+        Position end = writeEnd;
+        List<Entry> entries = new ArrayList<>();
+        long segment = from.segment();
+        int offset = from.offset();
+        while (entries.size() < max && (segment < end.segment() || offset < end.offset())) {
+            byte[] payload = readRecord(segments.get(segment), offset);
+            if (payload == null) {
+                segment++;
+                offset = 0;
+                continue;
+            }
+            offset += RECORD_HEADER_BYTES + payload.length;
+            entries.add(new Entry(payload, new Position(segment, offset)));
+        }
+        return entries;
+    }
+
+    /**
+     * Count the records from {@code from} to the end of the journal.
+     */
+    long count(Position from) {
+        long count = 0;
+        for (List<Entry> entries = read(from, 1024); !entries.isEmpty(); entries = read(from, 1024)) {
+            count += entries.size();
+            from = entries.get(entries.size() - 1).next();
+        }
+        return count;
+    }
+
+    /**
+     * Record that everything before {@code position} is delivered and drop the segments
+     * that are no longer needed.
+     */
+    void acknowledge(Position position) throws IOException {
+        ackBuffer.putLong(0, position.segment());
+        ackBuffer.putInt(Long.BYTES, position.offset());
+        ackBuffer.force();
+        acked = position;
+        for (Long segment : segments.headMap(position.segment()).keySet()) {
+            segments.remove(segment);
+            Files.deleteIfExists(segmentPath(segment));
+        }
+    }
+
+    Position acknowledged() {
+        return acked;
+    }
+
+    Position end() {
+        return writeEnd;
+    }
+
+    void force() {
+        segments.values().forEach(MappedByteBuffer::force);
+        ackBuffer.force();
+    }
+
+    /**
+     * Payload of the valid record at {@code offset}, or null at the end of the written part.
+     */
+    private byte[] readRecord(MappedByteBuffer buffer, int offset) {
+        if (offset + RECORD_HEADER_BYTES > segmentBytes) {
+            return null;
+        }
+        int length = buffer.getInt(offset);
+        if (length <= 0 || offset + RECORD_HEADER_BYTES + length > segmentBytes) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(offset + RECORD_HEADER_BYTES, payload);
+        return checksum(payload) == buffer.getInt(offset + Integer.BYTES) ? payload : null;
+    }
+
+    /**
+     * Zero a record that was only partly written before a crash, so it is not mistaken for
+     * data once later appends land behind it.
+     */
+    private void clearTornRecord(MappedByteBuffer buffer, int offset) {
+        if (offset + RECORD_HEADER_BYTES > segmentBytes || buffer.getInt(offset) == 0) {
+            return;
+        }
+        int claimed = buffer.getInt(offset);
+        int end = claimed > 0 ? (int) Math.min(segmentBytes, (long) offset + RECORD_HEADER_BYTES + claimed) : segmentBytes;
+        buffer.put(offset, new byte[end - offset]);
+        buffer.force(offset, end - offset);
+    }
+
+    private MappedByteBuffer map(long segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("journal-%010d.seg", segment));
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
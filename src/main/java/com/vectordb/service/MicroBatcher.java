@@ -0,0 +1,139 @@
+package com.vectordb.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent single-item requests into batches.
+ * A worker takes the first waiting item, then keeps collecting until either
+ * {@code maxBatchSize} items are gathered or {@code maxWait} has passed, and hands
+ * the batch to its handler. Each handler is owned by exactly one worker thread.
+ */
+@Slf4j
+public class MicroBatcher<I, O> implements AutoCloseable {
+
+    private final BlockingQueue<Pending<I, O>> queue;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public MicroBatcher(String name, int maxBatchSize, Duration maxWait, int queueCapacity,
+                        List<? extends Function<List<I>, List<O>>> handlers) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxWaitNanos = maxWait.toNanos();
+
+        for (int i = 0; i < handlers.size(); i++) {
+            Function<List<I>, List<O>> handler = handlers.get(i);
+            Thread worker = new Thread(() -> runWorker(handler), name + "-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * Queue an item. Blocks while the queue is full, so callers are slowed down
+     * rather than piling up unbounded work.
+     */
+    public CompletableFuture<O> submit(I input) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Batcher is shut down"));
+        }
+        Pending<I, O> pending = new Pending<>(input, new CompletableFuture<>());
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        return pending.future;
+    }
+
+    private void runWorker(Function<List<I>, List<O>> handler) {
+        List<Pending<I, O>> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending<I, O> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending<I, O> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                process(handler, batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(batch, new IllegalStateException("Batcher is shut down"));
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Run one batch. Anything the handler throws, errors included, fails the batch's items
+     * instead of the worker, so no caller is left waiting and later batches still run.
+     */
+    private void process(Function<List<I>, List<O>> handler, List<Pending<I, O>> batch) {
+        List<I> inputs = new ArrayList<>(batch.size());
+        for (Pending<I, O> pending : batch) {
+            inputs.add(pending.input);
+        }
+
+        try {
+            List<O> outputs = handler.apply(inputs);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(outputs.get(i));
+            }
+        } catch (Throwable e) {
+            log.error("Batch of {} items failed: {}", batch.size(), e.getMessage(), e);
+            fail(batch, e);
+        }
+    }
+
+    private void fail(List<Pending<I, O>> batch, Throwable cause) {
+        for (Pending<I, O> pending : batch) {
+            pending.future.completeExceptionally(cause);
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        Pending<I, O> pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future.completeExceptionally(new IllegalStateException("Batcher is shut down"));
+        }
+    }
+
+    private record Pending<I, O>(I input, CompletableFuture<O> future) {
+    }
+}
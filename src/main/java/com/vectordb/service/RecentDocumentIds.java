@@ -0,0 +1,86 @@
+package com.vectordb.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vectordb.config.IngestConfig;
+import com.vectordb.model.VectorDocument;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Content-addressed IDs of recently stored documents, with the metadata they were stored
+ * with. A re-submission only counts as a duplicate when its metadata is the same too, so a
+ * changed category or description is always written. An exact map rather than a bloom
+ * filter: a false positive would silently drop a new document. Only active with
+ * {@code ingest.content-addressed-ids}; hit and miss counts are published as
+ * {@code cache.*} metrics with {@code cache=recent-ids}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecentDocumentIds {
+
+    private final IngestConfig ingestConfig;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<String, Metadata> ids;
+
+    @PostConstruct
+    public void init() {
+        if (!ingestConfig.isContentAddressedIds()) {
+            return;
+        }
+
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(ingestConfig.getRecentIdsMaxSize())
+                .recordStats();
+        if (ingestConfig.getRecentIdsTtlSeconds() > 0) {
+            builder.expireAfterWrite(Duration.ofSeconds(ingestConfig.getRecentIdsTtlSeconds()));
+        }
+        this.ids = builder.build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, ids, "recent-ids");
+        log.info("Content-addressed document IDs enabled, remembering up to {} recent IDs",
+                ingestConfig.getRecentIdsMaxSize());
+    }
+
+    public boolean isEnabled() {
+        return ids != null;
+    }
+
+    /**
+     * Whether the document was stored recently with exactly this metadata.
+     */
+    public boolean contains(String documentId, String category, String description, String mediaUrl) {
+        return ids != null && new Metadata(category, description, mediaUrl).equals(ids.getIfPresent(documentId));
+    }
+
+    /**
+     * Remember a document the store has accepted.
+     */
+    public void add(VectorDocument document) {
+        if (ids != null) {
+            ids.put(document.getId(),
+                    new Metadata(document.getCategory(), document.getDescription(), document.getMediaUrl()));
+        }
+    }
+
+    /**
+     * Forget a document whose stored metadata may have changed, so the next submission
+     * of it is written instead of being matched against stale metadata.
+     */
+    public void remove(String documentId) {
+        if (ids != null) {
+            ids.invalidate(documentId);
+        }
+    }
+
+    private record Metadata(String category, String description, String mediaUrl) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.vectordb.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bounded retries with exponential backoff and full jitter: the wait before retry {@code n}
+ * is uniform in [0, min(maxDelayMs, baseDelayMs * 2^(n-1))], so clients that failed together
+ * do not retry together.
+ */
+class RetryPolicy {
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+
+    RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    /**
+     * Whether another attempt may follow attempt number {@code attempt} (1-based).
+     */
+    boolean canRetry(int attempt) {
+        return attempt < maxAttempts;
+    }
+
+    long backoffMs(int attempt) {
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Statuses that mean Vespa is overloaded or briefly unavailable, so the same request
+     * may well succeed a moment later.
+     */
+    static boolean isRetryableStatus(int statusCode) {
+        return statusCode == 429 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+
+    /**
+     * Transport failures and retryable statuses are worth another attempt. Rejections by
+     * our own guards are not: retrying them would only add load to an open circuit.
+     */
+    static boolean isRetryable(Throwable error) {
+        return error instanceof VespaException vespa
+                && (vespa.getStatusCode() == -1 || isRetryableStatus(vespa.getStatusCode()));
+    }
+}
@@ -0,0 +1,258 @@
+package com.vectordb.service;
+
+import com.vectordb.config.VespaConfig;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Renders {@code embedding.sd} from the embedding and Vespa settings, so tensor dimensions,
+ * cell types and the searched field always match what this service feeds and queries.
+ * With {@code vespa.schema-output} set, the schema is written there at startup.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SchemaGenerator {
+
+    private final VespaConfig vespaConfig;
+    private final AnnIndexLayout layout;
+
+    @PostConstruct
+    public void init() {
+        if (!StringUtils.hasText(vespaConfig.getSchemaOutput())) {
+            return;
+        }
+        Path output = Path.of(vespaConfig.getSchemaOutput());
+        try {
+            if (output.getParent() != null) {
+                Files.createDirectories(output.getParent());
+            }
+            Files.writeString(output, generate());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write Vespa schema to " + output, e);
+        }
+        log.info("Wrote Vespa schema searching {} ({} cells) to {}", layout.field(), layout.cells(), output);
+    }
+
+    public String generate() {
+        StringBuilder sd = new StringBuilder(4096);
+        sd.append("""
+                # Generated by SchemaGenerator from the embedding.* and vespa.* settings; regenerate
+                # with vespa.schema-output instead of editing by hand.
+                schema embedding {
+                    document embedding {
+                        field content type string {
+                            indexing: summary | index
+                            index: enable-bm25
+                        }
+
+                        field content_type type string {
+                            indexing: summary | attribute
+                            attribute: fast-search
+                            rank: filter
+                        }
+
+                        field category type string {
+                            indexing: summary | attribute
+                            attribute: fast-search
+                            rank: filter
+                        }
+
+                        field description type string {
+                            indexing: summary | index
+                        }
+
+                        field media_url type string {
+                            indexing: summary | attribute
+                        }
+
+                        field created_at type long {
+                            indexing: summary | attribute
+                            attribute: fast-search
+                        }
+
+                        # Local document id, so searches can be restricted to an id set; also in the
+                        # lean summary, which has no documentid to give hits their ids
+                        field doc_id type string {
+                            indexing: summary | attribute
+                            attribute: fast-search
+                            rank: filter
+                        }
+
+                """);
+        appendEmbeddingFields(sd);
+        sd.append("""
+                    }
+
+                    fieldset default {
+                        fields: content, description
+                    }
+
+                    # Search hits only need the metadata; leaving out the embedding tensors keeps
+                    # them off the wire and out of summary fetching.
+                    document-summary lean {
+                        summary doc_id {}
+                        summary content {}
+                        summary content_type {}
+                        summary category {}
+                        summary description {}
+                        summary media_url {}
+                        summary created_at {}
+                    }
+
+                    # Candidates for the service's exact re-rank also carry the full embedding
+                    document-summary rerank inherits lean {
+                        summary embedding {}
+                    }
+
+                """);
+        appendRankProfiles(sd);
+        sd.append("}\n");
+        return sd.toString();
+    }
+
+    private void appendEmbeddingFields(StringBuilder sd) {
+        String fullType = floatTensor(layout.fullDimension());
+        if (!layout.isReranked()) {
+            sd.append("        field embedding type ").append(fullType).append(" {\n");
+            sd.append("            indexing: summary | attribute | index\n");
+            appendAnnAttribute(sd, "angular");
+            sd.append("        }\n");
+            return;
+        }
+
+        sd.append("""
+                        # Full-precision vector, read only to re-rank the top hits. Without an HNSW
+                        # index it can be paged, so it does not need to stay in memory.
+                """);
+        sd.append("        field embedding type ").append(fullType).append(" {\n");
+        sd.append("""
+                            indexing: summary | attribute
+                            attribute: paged
+                            attribute {
+                                distance-metric: angular
+                            }
+                        }
+
+                """);
+        if (layout.isQuantized()) {
+            sd.append("        # ").append(layout.distanceMetric().equals("hamming")
+                    ? "Sign bits of the " : "int8 copy of the ")
+                    .append(layout.isCoarse() ? "coarse" : "full").append(" vector; the HNSW index runs over it\n");
+            sd.append("        field embedding_quantized type tensor<int8>(x[").append(layout.cells()).append("]) {\n");
+        } else {
+            sd.append("        # ").append(layout.dimension())
+                    .append("-dimension reduction of the embedding; the HNSW index runs over it\n");
+            sd.append("        field embedding_coarse type ").append(floatTensor(layout.dimension())).append(" {\n");
+        }
+        sd.append("            indexing: attribute | index\n");
+        appendAnnAttribute(sd, layout.distanceMetric());
+        sd.append("        }\n");
+    }
+
+    private static void appendAnnAttribute(StringBuilder sd, String distanceMetric) {
+        sd.append("            attribute {\n");
+        sd.append("                distance-metric: ").append(distanceMetric).append('\n');
+        sd.append("""
+                            }
+                            index {
+                                hnsw {
+                                    max-links-per-node: 16
+                                    neighbors-to-explore-at-insert: 200
+                                }
+                            }
+                """);
+    }
+
+    private void appendRankProfiles(StringBuilder sd) {
+        String closeness = "closeness(field, " + layout.field() + ")";
+        sd.append("    rank-profile semantic {\n");
+        sd.append("        inputs {\n");
+        sd.append("            query(q) tensor<float>(x[").append(layout.fullDimension()).append("])\n");
+        if (layout.isReranked()) {
+            sd.append("            query(").append(layout.queryInput()).append(") ")
+                    .append(layout.isQuantized() ? "tensor<int8>(x[" + layout.cells() + "])"
+                            : "tensor<float>(x[" + layout.dimension() + "])")
+                    .append('\n');
+        }
+        sd.append("""
+                        }
+                        # Filters are applied before the HNSW search; when fewer than 5% of the documents
+                        # pass them, an exact search over those documents is cheaper and has full recall.
+                        approximate-threshold: 0.05
+                        post-filter-threshold: 1.0
+                """);
+        if (layout.isReranked()) {
+            sd.append("""
+                            function cosine() {
+                                expression: sum(query(q) * attribute(embedding)) / sqrt(sum(query(q) * query(q)) * sum(attribute(embedding) * attribute(embedding)))
+                            }
+                            function full_closeness() {
+                                expression: 1 / (1 + acos(max(-1, min(1, cosine))))
+                            }
+                    """);
+        }
+        appendPhases(sd, closeness, "full_closeness");
+        sd.append("    }\n\n");
+
+        sd.append("""
+                    # Hybrid searches match the query text as well; the weighted sum of vector
+                    # closeness and BM25 ranks the hits
+                    rank-profile hybrid inherits semantic {
+                        inputs {
+                            query(vector_weight): 1.0
+                            query(text_weight): 1.0
+                        }
+                        function vector_score() {
+                """);
+        sd.append("            expression: ").append(layout.isReranked() ? "full_closeness" : closeness).append('\n');
+        sd.append("""
+                        }
+                """);
+        appendPhases(sd,
+                "query(vector_weight) * " + closeness + " + query(text_weight) * bm25(content)",
+                "query(vector_weight) * full_closeness + query(text_weight) * bm25(content)");
+        sd.append("    }\n\n");
+
+        sd.append("""
+                    # Reciprocal rank fusion of the vector and BM25 rankings over the best hits of
+                    # the weighted sum, so neither score's scale dominates
+                    rank-profile hybrid_rrf inherits hybrid {
+                        global-phase {
+                """);
+        sd.append("            rerank-count: ").append(vespaConfig.getRerankCount()).append('\n');
+        sd.append("""
+                            expression: reciprocal_rank_fusion(vector_score, bm25(content))
+                        }
+                    }
+                """);
+    }
+
+    /**
+     * First phase on the searched field; when that is a lossy copy, a second phase re-ranks
+     * with the angular closeness of the full vectors, the score the plain float layout gives.
+     */
+    private void appendPhases(StringBuilder sd, String firstPhase, String secondPhase) {
+        sd.append("        first-phase {\n");
+        sd.append("            expression: ").append(firstPhase).append('\n');
+        sd.append("        }\n");
+        if (layout.isReranked()) {
+            sd.append("        second-phase {\n");
+            sd.append("            rerank-count: ").append(vespaConfig.getRerankCount()).append('\n');
+            sd.append("            expression: ").append(secondPhase).append('\n');
+            sd.append("        }\n");
+        }
+    }
+
+    private String floatTensor(int dimension) {
+        return "tensor<" + vespaConfig.getTensorCellType().getVespaName() + ">(x[" + dimension + "])";
+    }
+}
@@ -0,0 +1,225 @@
+package com.vectordb.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.vectordb.dto.SearchResponse;
+import com.vectordb.model.ContentType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streams a Vespa query API response straight into {@link SearchResponse} objects.
+ * Only the fields that end up in a result are materialized; everything else in the
+ * hit, including a returned embedding tensor unless it was asked for, is skipped at the
+ * token level. A hit's id is rebuilt from its {@code doc_id} field when the summary has
+ * one, since hits of a summary class without {@code documentid} only carry an internal
+ * {@code index:} id.
+ */
+public class SearchResponseParser {
+
+    private static final String DOCUMENT_ID_PREFIX = "id:vectordb:embedding::";
+
+    private final JsonFactory jsonFactory;
+
+    public SearchResponseParser(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * Parse a response body. {@code searchTimeMs} and {@code query} are left unset.
+     */
+    public SearchResponse parse(InputStream body) throws IOException {
+        return parse(body, false);
+    }
+
+    /**
+     * Parse a response body, reading each hit's {@code embedding} into
+     * {@link SearchResponse.SearchResult#getEmbedding()} when {@code withEmbeddings} is set.
+     */
+    public SearchResponse parse(InputStream body, boolean withEmbeddings) throws IOException {
+        List<SearchResponse.SearchResult> results = new ArrayList<>();
+        int totalHits = 0;
+
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                if ("root".equals(name)) {
+                    totalHits = parseRoot(parser, results, withEmbeddings);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        return SearchResponse.builder()
+                .results(results)
+                .totalHits(totalHits)
+                .build();
+    }
+
+    private int parseRoot(JsonParser parser, List<SearchResponse.SearchResult> results, boolean withEmbeddings)
+            throws IOException {
+        expect(parser.currentToken(), JsonToken.START_OBJECT);
+        int totalCount = -1;
+        boolean hasChildren = false;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("children".equals(name) && value == JsonToken.START_ARRAY) {
+                hasChildren = true;
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    results.add(parseHit(parser, withEmbeddings));
+                }
+            } else if ("fields".equals(name) && value == JsonToken.START_OBJECT) {
+                totalCount = parseTotalCount(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        if (!hasChildren) {
+            return 0;
+        }
+        return totalCount >= 0 ? totalCount : results.size();
+    }
+
+    private int parseTotalCount(JsonParser parser) throws IOException {
+        int totalCount = -1;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("totalCount".equals(name) && value.isNumeric()) {
+                totalCount = parser.getIntValue();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return totalCount;
+    }
+
+    private SearchResponse.SearchResult parseHit(JsonParser parser, boolean withEmbeddings) throws IOException {
+        SearchResponse.SearchResult result = SearchResponse.SearchResult.builder()
+                .id("")
+                .content("")
+                .contentType(ContentType.TEXT)
+                .category("")
+                .description("")
+                .mediaUrl("")
+                .build();
+        String docId = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (name) {
+                case "id" -> result.setId(parser.getValueAsString(""));
+                case "relevance" -> result.setScore(value.isNumeric() ? parser.getDoubleValue() : 0.0);
+                case "fields" -> {
+                    if (value == JsonToken.START_OBJECT) {
+                        docId = parseHitFields(parser, result, withEmbeddings);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        if (docId != null) {
+            result.setId(DOCUMENT_ID_PREFIX + docId);
+        }
+        return result;
+    }
+
+    /**
+     * Read a hit's summary fields into {@code result} and return its {@code doc_id}, if any.
+     */
+    private String parseHitFields(JsonParser parser, SearchResponse.SearchResult result, boolean withEmbeddings)
+            throws IOException {
+        String docId = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (withEmbeddings && "embedding".equals(name)) {
+                result.setEmbedding(parseTensorValues(parser, value));
+                continue;
+            }
+            switch (name) {
+                case "doc_id" -> docId = parser.getValueAsString();
+                case "content" -> result.setContent(parser.getValueAsString(""));
+                case "content_type" -> result.setContentType(parseContentType(parser.getValueAsString()));
+                case "category" -> result.setCategory(parser.getValueAsString(""));
+                case "description" -> result.setDescription(parser.getValueAsString(""));
+                case "media_url" -> result.setMediaUrl(parser.getValueAsString(""));
+                default -> parser.skipChildren();
+            }
+        }
+        return docId;
+    }
+
+    /**
+     * Content type of a stored document, matched case-insensitively. A missing or unknown
+     * value reads as {@link ContentType#TEXT} rather than failing the whole response.
+     */
+    private static ContentType parseContentType(String value) {
+        if (value != null) {
+            for (ContentType type : ContentType.values()) {
+                if (type.name().equalsIgnoreCase(value)) {
+                    return type;
+                }
+            }
+        }
+        return ContentType.TEXT;
+    }
+
+    /**
+     * Cells of a dense tensor in the short-value form, {@code [...]}, or the short form,
+     * {@code {"type": ..., "values": [...]}}. Null for anything else.
+     */
+    private static float[] parseTensorValues(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.START_ARRAY) {
+            return parseFloatArray(parser);
+        }
+        float[] values = null;
+        if (value == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                if (parser.nextToken() == JsonToken.START_ARRAY && "values".equals(name)) {
+                    values = parseFloatArray(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return values;
+    }
+
+    private static float[] parseFloatArray(JsonParser parser) throws IOException {
+        float[] values = new float[64];
+        int size = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (!token.isNumeric()) {
+                throw new IOException("Unexpected token in embedding tensor: " + token);
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = parser.getFloatValue();
+        }
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Unexpected token in search response: expected " + expected + " but got " + actual);
+        }
+    }
+}
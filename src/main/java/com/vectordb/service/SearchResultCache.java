@@ -0,0 +1,93 @@
+package com.vectordb.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vectordb.config.SearchConfig;
+import com.vectordb.dto.SearchRequest;
+import com.vectordb.dto.SearchResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of search results keyed on the full {@link SearchRequest}.
+ * Every successful write or delete bumps a generation counter that is part of the key,
+ * so results computed before the write are never served after it.
+ * Concurrent identical misses share one in-flight search.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchResultCache {
+
+    private final SearchConfig searchConfig;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong generation = new AtomicLong();
+    private AsyncCache<Key, SearchResponse> cache;
+
+    @PostConstruct
+    public void init() {
+        if (!searchConfig.isCacheEnabled()) {
+            log.info("Search result cache disabled");
+            return;
+        }
+
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(searchConfig.getCacheTtlMs()))
+                .maximumSize(searchConfig.getCacheMaxEntries())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "search");
+        log.info("Search result cache enabled with {} ms TTL", searchConfig.getCacheTtlMs());
+    }
+
+    /**
+     * Return a cached response for {@code request} or start {@code search}. The search is
+     * started on the calling thread; concurrent identical requests get the same future.
+     * Failed searches are not cached.
+     */
+    public CompletableFuture<SearchResponse> get(SearchRequest request,
+                                                 Supplier<CompletableFuture<SearchResponse>> search) {
+        if (cache == null) {
+            return search.get();
+        }
+
+        Key key = new Key(request.toBuilder().build(), generation.get());
+        CompletableFuture<SearchResponse> mine = new CompletableFuture<>();
+        CompletableFuture<SearchResponse> shared = cache.get(key, (k, executor) -> mine);
+
+        if (shared == mine) {
+            try {
+                search.get().whenComplete((response, error) -> {
+                    if (error != null) {
+                        mine.completeExceptionally(error);
+                    } else {
+                        mine.complete(response);
+                    }
+                });
+            } catch (RuntimeException e) {
+                mine.completeExceptionally(e);
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Make all previously cached results unreachable. Called after successful writes.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    private record Key(SearchRequest request, long generation) {
+    }
+}
@@ -0,0 +1,306 @@
+package com.vectordb.service;
+
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Async response consumer that parses a 2xx body while it arrives instead of buffering it
+ * whole. The I/O reactor hands body chunks to a pipe; a virtual thread parses from the pipe
+ * and completes the exchange. At most {@code window} unparsed bytes are buffered: the
+ * consumer only grants the connection capacity the parser has freed. Bodies of other
+ * statuses are discarded.
+ */
+final class StreamingResponseConsumer<T> implements AsyncResponseConsumer<StreamingResponseConsumer.Response<T>> {
+
+    @FunctionalInterface
+    interface BodyParser<T> {
+        T parse(InputStream body) throws IOException;
+    }
+
+    /**
+     * Status and parsed body of a response. {@code body} is null for a non-2xx status;
+     * {@code parseError} is set if a complete 2xx body could not be parsed.
+     */
+    record Response<T>(int statusCode, T body, IOException parseError) {
+
+        boolean isSuccessful() {
+            return statusCode >= 200 && statusCode < 300;
+        }
+    }
+
+    private final BodyParser<T> parser;
+    private final Pipe pipe;
+    private final AtomicBoolean done = new AtomicBoolean();
+
+    private volatile int statusCode;
+    private volatile FutureCallback<Response<T>> resultCallback;
+
+    StreamingResponseConsumer(BodyParser<T> parser, int window) {
+        this.parser = parser;
+        this.pipe = new Pipe(window);
+    }
+
+    @Override
+    public void consumeResponse(HttpResponse response, EntityDetails entityDetails, HttpContext context,
+                                FutureCallback<Response<T>> resultCallback) {
+        this.statusCode = response.getCode();
+        this.resultCallback = resultCallback;
+        boolean successful = isSuccessful();
+        if (!successful || entityDetails == null) {
+            pipe.stop();
+            if (entityDetails == null) {
+                complete(new Response<>(statusCode, null, successful ? new IOException("Empty response body") : null));
+            }
+            return;
+        }
+        Thread.startVirtualThread(this::parse);
+    }
+
+    private void parse() {
+        T body;
+        try {
+            body = parser.parse(pipe);
+        } catch (IOException e) {
+            IOException transportError = pipe.stop();
+            if (transportError == null) {
+                complete(new Response<>(statusCode, null, e));
+            } else if (done.compareAndSet(false, true)) {
+                resultCallback.failed(transportError);
+            }
+            return;
+        } catch (RuntimeException e) {
+            // A malformed document must still complete the exchange, or the caller waits forever
+            pipe.stop();
+            complete(new Response<>(statusCode, null, new IOException("Could not parse the response body", e)));
+            return;
+        }
+        // Anything after the parsed document is drained and dropped
+        pipe.stop();
+        complete(new Response<>(statusCode, body, null));
+    }
+
+    private void complete(Response<T> response) {
+        if (done.compareAndSet(false, true)) {
+            resultCallback.completed(response);
+        }
+    }
+
+    private boolean isSuccessful() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    @Override
+    public void informationResponse(HttpResponse response, HttpContext context) {
+    }
+
+    @Override
+    public void updateCapacity(CapacityChannel capacityChannel) throws IOException {
+        pipe.updateCapacity(capacityChannel);
+    }
+
+    @Override
+    public void consume(ByteBuffer src) throws IOException {
+        pipe.write(src);
+    }
+
+    @Override
+    public void streamEnd(List<? extends Header> trailers) {
+        pipe.end();
+        if (resultCallback != null && !isSuccessful()) {
+            complete(new Response<>(statusCode, null, null));
+        }
+    }
+
+    @Override
+    public void failed(Exception cause) {
+        pipe.fail(cause instanceof IOException io ? io : new IOException(cause));
+    }
+
+    @Override
+    public void releaseResources() {
+    }
+
+    /**
+     * Bounded byte pipe from the reactor to the parser. Writes never block: the reactor only
+     * sends what was granted through the capacity channel, and grants follow reads.
+     */
+    private static final class Pipe extends InputStream {
+
+        private final int window;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition readable = lock.newCondition();
+        private final Deque<ByteBuffer> chunks = new ArrayDeque<>();
+
+        // Guarded by lock
+        private CapacityChannel capacityChannel;
+        private int buffered;
+        private int granted;
+        private boolean ended;
+        private boolean closed;
+        private IOException error;
+
+        Pipe(int window) {
+            this.window = window;
+        }
+
+        void updateCapacity(CapacityChannel channel) throws IOException {
+            lock.lock();
+            try {
+                capacityChannel = channel;
+            } finally {
+                lock.unlock();
+            }
+            grant();
+        }
+
+        void write(ByteBuffer src) throws IOException {
+            int length = src.remaining();
+            lock.lock();
+            try {
+                granted = Math.max(0, granted - length);
+                if (!closed) {
+                    ByteBuffer copy = ByteBuffer.allocate(length);
+                    copy.put(src).flip();
+                    chunks.addLast(copy);
+                    buffered += length;
+                    readable.signal();
+                } else {
+                    src.position(src.limit());
+                }
+            } finally {
+                lock.unlock();
+            }
+            grant();
+        }
+
+        void end() {
+            lock.lock();
+            try {
+                ended = true;
+                readable.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void fail(IOException cause) {
+            lock.lock();
+            try {
+                error = cause;
+                readable.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            stop();
+        }
+
+        /**
+         * Stop buffering: later data is dropped as it arrives.
+         *
+         * @return the transport error that ended the stream, if any
+         */
+        IOException stop() {
+            lock.lock();
+            try {
+                closed = true;
+                chunks.clear();
+                buffered = 0;
+                return error;
+            } finally {
+                lock.unlock();
+                grantQuietly();
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            int read = 0;
+            lock.lock();
+            try {
+                while (chunks.isEmpty() && !ended && error == null && !closed) {
+                    readable.await();
+                }
+                if (error != null) {
+                    throw error;
+                }
+                while (read < len && !chunks.isEmpty()) {
+                    ByteBuffer chunk = chunks.peekFirst();
+                    int n = Math.min(len - read, chunk.remaining());
+                    chunk.get(b, off + read, n);
+                    read += n;
+                    if (!chunk.hasRemaining()) {
+                        chunks.pollFirst();
+                    }
+                }
+                buffered -= read;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while reading the response body", e);
+            } finally {
+                lock.unlock();
+            }
+            if (read == 0) {
+                return -1;
+            }
+            grant();
+            return read;
+        }
+
+        /**
+         * Grant the connection whatever the window has free. Called outside the lock, since
+         * the channel may call back into the reactor.
+         */
+        private void grant() throws IOException {
+            CapacityChannel channel;
+            int increment;
+            lock.lock();
+            try {
+                channel = capacityChannel;
+                increment = window - buffered - granted;
+                if (channel == null || increment <= 0) {
+                    return;
+                }
+                granted += increment;
+            } finally {
+                lock.unlock();
+            }
+            channel.update(increment);
+        }
+
+        private void grantQuietly() {
+            try {
+                grant();
+            } catch (IOException ignored) {
+                // The exchange is failing anyway and reports its own error
+            }
+        }
+    }
+}
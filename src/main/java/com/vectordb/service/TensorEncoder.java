@@ -0,0 +1,115 @@
+package com.vectordb.service;
+
+import com.vectordb.model.TensorCellType;
+
+/**
+ * Serializes dense tensors to Vespa's hex cell format: the big-endian binary
+ * value of each cell, two hex digits per byte. A 384-dim float tensor becomes a
+ * fixed 3072-character string, written in a single pass without boxing or
+ * per-value string conversion.
+ */
+public final class TensorEncoder {
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private TensorEncoder() {
+    }
+
+    /**
+     * Hex-encode {@code values} as cells of {@code cellType}.
+     * For INT8 the values are rounded and clamped, so they must already be quantized;
+     * embeddings go through {@link EmbeddingQuantizer} instead.
+     */
+    public static String toHex(float[] values, TensorCellType cellType) {
+        char[] out = new char[values.length * cellType.getBytes() * 2];
+        int pos = 0;
+        switch (cellType) {
+            case FLOAT -> {
+                for (float value : values) {
+                    pos = writeHex(out, pos, Float.floatToRawIntBits(value), 8);
+                }
+            }
+            case BFLOAT16 -> {
+                for (float value : values) {
+                    pos = writeHex(out, pos, toBfloat16(value), 4);
+                }
+            }
+            case INT8 -> {
+                for (float value : values) {
+                    int quantized = Math.max(Byte.MIN_VALUE, Math.min(Byte.MAX_VALUE, Math.round(value)));
+                    pos = writeHex(out, pos, quantized, 2);
+                }
+            }
+        }
+        return new String(out);
+    }
+
+    /**
+     * Hex-encode int8 cells.
+     */
+    public static String toHex(byte[] values) {
+        char[] out = new char[values.length * 2];
+        int pos = 0;
+        for (byte value : values) {
+            pos = writeHex(out, pos, value, 2);
+        }
+        return new String(out);
+    }
+
+    /**
+     * Tensor literal for a query input, e.g. {@code tensor<float>(x[384]):3DE38E39...}.
+     */
+    public static String toQueryLiteral(float[] values, TensorCellType cellType) {
+        return "tensor<" + cellType.getVespaName() + ">(x[" + values.length + "]):" + toHex(values, cellType);
+    }
+
+    /**
+     * Tensor literal of int8 cells, e.g. {@code tensor<int8>(x[48]):7F01...}.
+     */
+    public static String toQueryLiteral(byte[] values) {
+        return "tensor<int8>(x[" + values.length + "]):" + toHex(values);
+    }
+
+    /**
+     * Dense short form, e.g. {@code [0.1,0.2,...]}, for Vespa versions without hex input.
+     */
+    public static String toJsonArray(float[] values) {
+        StringBuilder tensor = new StringBuilder(values.length * 12 + 2).append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                tensor.append(',');
+            }
+            tensor.append(values[i]);
+        }
+        return tensor.append(']').toString();
+    }
+
+    /**
+     * Dense short form of int8 cells, e.g. {@code [127,-3,...]}.
+     */
+    public static String toJsonArray(byte[] values) {
+        StringBuilder tensor = new StringBuilder(values.length * 5 + 2).append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                tensor.append(',');
+            }
+            tensor.append(values[i]);
+        }
+        return tensor.append(']').toString();
+    }
+
+    /**
+     * Round-to-nearest-even truncation of a float to its upper 16 bits.
+     */
+    static int toBfloat16(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        return (bits + 0x7FFF + ((bits >>> 16) & 1)) >>> 16;
+    }
+
+    private static int writeHex(char[] out, int pos, int value, int digits) {
+        for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+            out[pos++] = HEX[(value >>> shift) & 0xF];
+        }
+        return pos;
+    }
+}
@@ -0,0 +1,64 @@
+package com.vectordb.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.http.Outcome;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Stage timers for the store and search paths. All meters share the {@code vectordb.}
+ * prefix, so percentiles and histograms are switched on for all of them with
+ * {@code management.metrics.distribution.*.vectordb}.
+ */
+@Component
+@RequiredArgsConstructor
+public class VectorMetrics {
+
+    /** Embedding generation, including the embedding cache. Tags: content_type, batch. */
+    public static final String EMBED = "vectordb.embed";
+    /** Request body serialization including the tensor. Tags: operation. */
+    public static final String SERIALIZE = "vectordb.serialize";
+    /** HTTP round trip to the store backend. Tags: operation, outcome. */
+    public static final String HTTP = "vectordb.http";
+    /** Search response parsing. It overlaps the body transfer, which {@code vectordb.http} includes. */
+    public static final String PARSE = "vectordb.parse";
+    /** Store backend search, from dispatch to parsed response. Tags: store, outcome. */
+    public static final String STORE_SEARCH = "vectordb.store.search";
+    /** Single document store, embedding included. Tags: content_type, outcome. */
+    public static final String STORE = "vectordb.store";
+    /** End-to-end search as seen by the API, result cache included. */
+    public static final String SEARCH = "vectordb.search";
+    /** In-service exact re-ranking of search candidates, MMR included. Tags: kernel. */
+    public static final String RERANK = "vectordb.rerank";
+    /** Ingest journal append, fsync included. */
+    public static final String JOURNAL_APPEND = "vectordb.journal.append";
+
+    private final MeterRegistry meterRegistry;
+
+    public Timer timer(String name, String... tags) {
+        return Timer.builder(name).tags(tags).register(meterRegistry);
+    }
+
+    public <T> T record(String name, Supplier<T> stage, String... tags) {
+        return timer(name, tags).record(stage);
+    }
+
+    public void record(String name, long startNanos, String... tags) {
+        timer(name, tags).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Outcome tag for an HTTP status code, as used by Spring's own HTTP metrics.
+     */
+    public static String outcome(int statusCode) {
+        return Outcome.forStatus(statusCode).name();
+    }
+
+    public static String outcome(boolean success) {
+        return success ? "SUCCESS" : "ERROR";
+    }
+}
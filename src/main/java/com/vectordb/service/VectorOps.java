@@ -0,0 +1,51 @@
+package com.vectordb.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Float vector kernels for scoring in the service. When the JVM runs with
+ * {@code --add-modules jdk.incubator.vector} the dot product uses the Vector API at the
+ * platform's preferred width; without the module it falls back to the scalar loop.
+ */
+@Slf4j
+public final class VectorOps {
+
+    private static final boolean SIMD = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    static {
+        if (SIMD) {
+            log.info("Vector API dot product enabled ({} float lanes)", SimdVectorOps.lanes());
+        } else {
+            log.info("jdk.incubator.vector not loaded; using the scalar dot product");
+        }
+    }
+
+    private VectorOps() {
+    }
+
+    public static boolean isSimd() {
+        return SIMD;
+    }
+
+    public static float dot(float[] a, float[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Expected dimension " + a.length + " but got " + b.length);
+        }
+        return SIMD ? SimdVectorOps.dot(a, b) : scalarDot(a, b);
+    }
+
+    /**
+     * The plain loop, also what the benchmark measures the Vector API against.
+     */
+    public static float scalarDot(float[] a, float[] b) {
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    public static float norm(float[] vector) {
+        return (float) Math.sqrt(dot(vector, vector));
+    }
+}
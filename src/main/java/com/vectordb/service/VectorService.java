@@ -1,15 +1,31 @@
 package com.vectordb.service;
 
+import com.vectordb.config.IngestConfig;
+import com.vectordb.config.SearchConfig;
 import com.vectordb.dto.*;
 import com.vectordb.model.ContentType;
+import com.vectordb.model.MetadataUpdate;
+import com.vectordb.model.SearchMode;
 import com.vectordb.model.VectorDocument;
+import com.vectordb.store.StoreResult;
+import com.vectordb.store.StoreUnavailableException;
+import com.vectordb.store.VectorStore;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Service
@@ -17,20 +33,38 @@ import java.util.UUID;
 public class VectorService {
 
     private final EmbeddingService embeddingService;
-    private final VespaService vespaService;
+    private final VectorStore vectorStore;
+    private final SearchResultCache searchResultCache;
+    private final SearchConfig searchConfig;
+    private final VectorMetrics metrics;
+    private final ObjectProvider<IngestJournal> ingestJournal;
+    private final IngestConfig ingestConfig;
+    private final RecentDocumentIds recentDocumentIds;
 
     public EmbeddingResponse storeEmbedding(EmbeddingRequest request) {
         log.info("Storing embedding for content type: {}", request.getContentType());
+        long startTime = System.nanoTime();
+        EmbeddingResponse response = storeEmbeddingTimed(request);
+        metrics.record(VectorMetrics.STORE, startTime,
+                "content_type", contentTypeTag(request), "outcome", VectorMetrics.outcome(response.isSuccess()));
+        return response;
+    }
 
+    private EmbeddingResponse storeEmbeddingTimed(EmbeddingRequest request) {
         try {
             ContentType contentType = request.getContentType() != null ? 
                     request.getContentType() : ContentType.TEXT;
 
+            String documentId = documentId(contentType, request.getContent());
+            if (recentDocumentIds.contains(documentId, request.getCategory(), request.getDescription(),
+                    request.getMediaUrl())) {
+                return alreadyStored(request, documentId, contentType);
+            }
+
             // Generate embedding based on content type
-            List<Float> embedding = generateEmbedding(request.getContent(), contentType);
+            float[] embedding = generateEmbedding(request.getContent(), contentType);
 
             // Create document
-            String documentId = UUID.randomUUID().toString();
             VectorDocument document = VectorDocument.builder()
                     .id(documentId)
                     .content(request.getContent())
@@ -42,10 +76,17 @@ public class VectorService {
                     .createdAt(Instant.now())
                     .build();
 
-            // Store in Vespa
-            boolean stored = vespaService.storeDocument(document);
+            IngestJournal journal = ingestJournal.getIfAvailable();
+            if (journal != null) {
+                journal.append(document);
+                return accepted(request, document);
+            }
+
+            // Store in the vector store
+            boolean stored = vectorStore.storeDocument(document);
 
             if (stored) {
+                recentDocumentIds.add(document);
                 return EmbeddingResponse.builder()
                         .id(documentId)
                         .content(request.getContent())
@@ -58,11 +99,13 @@ public class VectorService {
                 return EmbeddingResponse.builder()
                         .content(request.getContent())
                         .contentType(contentType)
-                        .message("Failed to store document in Vespa")
+                        .message("Failed to store document")
                         .success(false)
                         .build();
             }
 
+        } catch (StoreUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error storing embedding: {}", e.getMessage(), e);
             return EmbeddingResponse.builder()
@@ -73,37 +116,491 @@ public class VectorService {
         }
     }
 
+    /**
+     * Store a batch of documents. All embeddings are generated in one batched pass, then the
+     * documents are pipelined to the store; results are reported per document in input order.
+     */
+    public BatchEmbeddingResponse storeEmbeddings(List<EmbeddingRequest> requests) {
+        log.info("Storing batch of {} embeddings", requests.size());
+        long startTime = System.currentTimeMillis();
+
+        List<EmbeddingResponse> results = storeEmbeddingsAsync(requests).stream()
+                .map(CompletableFuture::join)
+                .toList();
+        int successCount = (int) results.stream().filter(EmbeddingResponse::isSuccess).count();
+
+        return BatchEmbeddingResponse.builder()
+                .results(results)
+                .totalDocuments(results.size())
+                .successCount(successCount)
+                .failCount(results.size() - successCount)
+                .elapsedMs(System.currentTimeMillis() - startTime)
+                .build();
+    }
+
+    /**
+     * Embed documents and hand them to the store. Embeddings are generated in one batched
+     * pass per content type before any document is submitted, so a model backend runs them as
+     * full micro-batches. Futures are in input order and complete once the store has answered;
+     * the call itself blocks only while the store's ingest limit is reached. With the ingest
+     * journal enabled they complete as soon as the documents are journaled.
+     */
+    public List<CompletableFuture<EmbeddingResponse>> storeEmbeddingsAsync(List<EmbeddingRequest> requests) {
+        long startTime = System.nanoTime();
+        List<CompletableFuture<EmbeddingResponse>> results = new ArrayList<>(requests.size());
+        String[] documentIds = new String[requests.size()];
+        Map<ContentType, List<Integer>> toEmbed = new EnumMap<>(ContentType.class);
+
+        for (int i = 0; i < requests.size(); i++) {
+            EmbeddingRequest request = requests.get(i);
+            ContentType contentType = contentType(request);
+            results.add(null);
+            try {
+                documentIds[i] = documentId(contentType, request.getContent());
+            } catch (Exception e) {
+                results.set(i, CompletableFuture.completedFuture(storeError(request, contentType, e)));
+                continue;
+            }
+            if (recentDocumentIds.contains(documentIds[i], request.getCategory(), request.getDescription(),
+                    request.getMediaUrl())) {
+                results.set(i, CompletableFuture.completedFuture(alreadyStored(request, documentIds[i], contentType)));
+            } else {
+                toEmbed.computeIfAbsent(contentType, type -> new ArrayList<>()).add(i);
+            }
+        }
+
+        for (Map.Entry<ContentType, List<Integer>> group : toEmbed.entrySet()) {
+            ContentType contentType = group.getKey();
+            List<Integer> indexes = group.getValue();
+            List<float[]> embeddings;
+            try {
+                embeddings = embeddingService.generateEmbeddings(contentType,
+                        indexes.stream().map(i -> requests.get(i).getContent()).toList());
+            } catch (Exception e) {
+                for (int i : indexes) {
+                    results.set(i, CompletableFuture.completedFuture(storeError(requests.get(i), contentType, e)));
+                }
+                continue;
+            }
+            for (int k = 0; k < indexes.size(); k++) {
+                int i = indexes.get(k);
+                results.set(i, submitDocument(requests.get(i), contentType, documentIds[i], embeddings.get(k)));
+            }
+        }
+
+        for (int i = 0; i < results.size(); i++) {
+            EmbeddingRequest request = requests.get(i);
+            results.set(i, results.get(i).whenComplete((response, error) ->
+                    metrics.record(VectorMetrics.STORE, startTime, "content_type", contentTypeTag(request),
+                            "outcome", VectorMetrics.outcome(error == null && response.isSuccess()))));
+        }
+        return results;
+    }
+
+    private CompletableFuture<EmbeddingResponse> submitDocument(EmbeddingRequest request, ContentType contentType,
+                                                                String documentId, float[] embedding) {
+        try {
+            VectorDocument document = VectorDocument.builder()
+                    .id(documentId)
+                    .content(request.getContent())
+                    .contentType(contentType)
+                    .embedding(embedding)
+                    .category(request.getCategory())
+                    .description(request.getDescription())
+                    .mediaUrl(request.getMediaUrl())
+                    .createdAt(Instant.now())
+                    .build();
+
+            IngestJournal journal = ingestJournal.getIfAvailable();
+            if (journal != null) {
+                journal.append(document);
+                return CompletableFuture.completedFuture(accepted(request, document));
+            }
+
+            return vectorStore.storeDocumentAsync(document)
+                    .whenComplete((result, error) -> {
+                        if (result != null && result.isSuccess()) {
+                            recentDocumentIds.add(document);
+                        }
+                    })
+                    .thenApply(result -> EmbeddingResponse.builder()
+                            .id(result.isSuccess() ? result.getDocumentId() : null)
+                            .content(request.getContent())
+                            .contentType(contentType)
+                            .category(request.getCategory())
+                            .message(result.isSuccess() ? "Document stored successfully"
+                                    : "Failed to store document: " + result.getMessage())
+                            .success(result.isSuccess())
+                            .build());
+
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(storeError(request, contentType, e));
+        }
+    }
+
+    private static EmbeddingResponse storeError(EmbeddingRequest request, ContentType contentType, Exception e) {
+        log.error("Error preparing embedding: {}", e.getMessage(), e);
+        return EmbeddingResponse.builder()
+                .content(request.getContent())
+                .contentType(contentType)
+                .message("Error: " + e.getMessage())
+                .success(false)
+                .build();
+    }
+
+    private static ContentType contentType(EmbeddingRequest request) {
+        return request.getContentType() != null ? request.getContentType() : ContentType.TEXT;
+    }
+
+    /**
+     * Content hash with {@code ingest.content-addressed-ids}, so identical content always gets
+     * the same ID and a re-submission overwrites instead of duplicating; a random UUID otherwise.
+     */
+    private String documentId(ContentType contentType, String content) {
+        return ingestConfig.isContentAddressedIds()
+                ? embeddingService.contentId(contentType, content)
+                : UUID.randomUUID().toString();
+    }
+
+    private static EmbeddingResponse alreadyStored(EmbeddingRequest request, String documentId,
+                                                   ContentType contentType) {
+        return EmbeddingResponse.builder()
+                .id(documentId)
+                .content(request.getContent())
+                .contentType(contentType)
+                .category(request.getCategory())
+                .message("Document already stored")
+                .success(true)
+                .build();
+    }
+
+    private static EmbeddingResponse accepted(EmbeddingRequest request, VectorDocument document) {
+        return EmbeddingResponse.builder()
+                .id(document.getId())
+                .content(request.getContent())
+                .contentType(document.getContentType())
+                .category(request.getCategory())
+                .message("Document accepted for indexing")
+                .success(true)
+                .build();
+    }
+
+    /**
+     * Change metadata of one stored document without re-embedding it.
+     *
+     * @throws IllegalArgumentException if the request changes no field
+     */
+    public CompletableFuture<UpdateResponse> updateFields(String documentId, UpdateRequest request) {
+        MetadataUpdate update = toMetadataUpdate(request);
+        if (update.isEmpty()) {
+            throw new IllegalArgumentException("At least one of category, description or mediaUrl is required");
+        }
+        return vectorStore.updateFields(localId(documentId), update).thenApply(this::updateResponse);
+    }
+
+    /**
+     * Apply many metadata updates in one call. Updates are submitted together, so with
+     * Vespa they are pipelined over the feed client; each gets its own result, in input order.
+     */
+    public BatchUpdateResponse updateFieldsBatch(List<UpdateRequest> requests) {
+        log.info("Updating metadata of {} documents", requests.size());
+        long startTime = System.currentTimeMillis();
+
+        List<CompletableFuture<UpdateResponse>> pending = new ArrayList<>(requests.size());
+        for (UpdateRequest request : requests) {
+            MetadataUpdate update = toMetadataUpdate(request);
+            if (request.getId() == null || request.getId().isBlank() || update.isEmpty()) {
+                pending.add(CompletableFuture.completedFuture(UpdateResponse.builder()
+                        .id(request.getId())
+                        .message("An id and at least one field to change are required")
+                        .success(false)
+                        .build()));
+            } else {
+                pending.add(vectorStore.updateFields(localId(request.getId()), update)
+                        .thenApply(this::updateResponse));
+            }
+        }
+
+        List<UpdateResponse> results = pending.stream().map(CompletableFuture::join).toList();
+        int successCount = (int) results.stream().filter(UpdateResponse::isSuccess).count();
+
+        return BatchUpdateResponse.builder()
+                .results(results)
+                .totalDocuments(results.size())
+                .successCount(successCount)
+                .failCount(results.size() - successCount)
+                .elapsedMs(System.currentTimeMillis() - startTime)
+                .build();
+    }
+
+    private static MetadataUpdate toMetadataUpdate(UpdateRequest request) {
+        return MetadataUpdate.builder()
+                .category(request.getCategory())
+                .description(request.getDescription())
+                .mediaUrl(request.getMediaUrl())
+                .build();
+    }
+
+    /**
+     * The remembered metadata of an updated document no longer matches the store, so it is
+     * forgotten; otherwise re-submitting the original metadata would be skipped as a duplicate.
+     * A missing document is forgotten as well.
+     */
+    private UpdateResponse updateResponse(StoreResult result) {
+        if (result.isSuccess() || result.isNotFound()) {
+            recentDocumentIds.remove(result.getDocumentId());
+        }
+        return UpdateResponse.builder()
+                .id(result.getDocumentId())
+                .message(result.isSuccess() ? "Document updated" : result.getMessage())
+                .success(result.isSuccess())
+                .found(!result.isNotFound())
+                .build();
+    }
+
+    /**
+     * Stores filter on bare document ids; hits carry full ones, which clients may send back.
+     */
+    private static SearchRequest withLocalIds(SearchRequest request) {
+        if (request.getIds() == null || request.getIds().isEmpty()) {
+            return request;
+        }
+        return request.toBuilder()
+                .ids(request.getIds().stream().map(VectorService::localId).distinct().toList())
+                .build();
+    }
+
+    private static String localId(String documentId) {
+        int separator = documentId.lastIndexOf("::");
+        return documentId.startsWith("id:") && separator >= 0 ? documentId.substring(separator + 2) : documentId;
+    }
+
     public SearchResponse searchSimilar(SearchRequest request) {
-        log.info("Searching for similar content: {}", request.getQuery());
+        return searchSimilarAsync(request).join();
+    }
+
+    /**
+     * Search without holding the calling thread while Vespa works.
+     * Errors produce an empty response, except a {@link StoreUnavailableException},
+     * which fails the future so the caller can answer 503.
+     */
+    public CompletableFuture<SearchResponse> searchSimilarAsync(SearchRequest searchRequest) {
+        log.info("Searching for similar content: {}", searchRequest.getQuery());
+        SearchRequest request = withLocalIds(searchRequest);
+        Timer.Sample sample = Timer.start();
 
+        CompletableFuture<SearchResponse> search;
         try {
-            // Generate embedding for query
-            List<Float> queryEmbedding = embeddingService.generateTextEmbedding(request.getQuery());
+            search = searchResultCache.get(request,
+                    () -> search(request, embeddingService.generateTextEmbedding(request.getQuery())))
+                    .exceptionally(e -> {
+                        if (unwrap(e) instanceof StoreUnavailableException unavailable) {
+                            throw unavailable;
+                        }
+                        return emptySearchResponse(request, e);
+                    });
 
-            // Determine content type preference
-            ContentType preferredType = request.getPreferredType();
-            boolean includeMedia = request.isIncludeMedia();
+        } catch (Exception e) {
+            search = CompletableFuture.completedFuture(emptySearchResponse(request, e));
+        }
+        return search.whenComplete((response, error) -> sample.stop(metrics.timer(VectorMetrics.SEARCH)));
+    }
 
-            // Search in Vespa
-            return vespaService.search(
-                    queryEmbedding, 
-                    preferredType, 
-                    includeMedia, 
-                    request.getLimit() > 0 ? request.getLimit() : 5
-            );
+    /**
+     * Run several searches for one caller. All queries are embedded in one batched pass,
+     * then at most {@code search.batch-parallelism} searches are in flight at a time.
+     * Results are in request order; a failed query gets an empty response, except a
+     * {@link StoreUnavailableException}, which fails the whole batch so the caller can answer 503.
+     */
+    public CompletableFuture<BatchSearchResponse> searchBatchAsync(List<SearchRequest> requests) {
+        log.info("Searching batch of {} queries", requests.size());
+        long startTime = System.currentTimeMillis();
 
+        List<float[]> embeddings;
+        try {
+            embeddings = embeddingService.generateTextEmbeddings(
+                    requests.stream().map(SearchRequest::getQuery).toList());
         } catch (Exception e) {
-            log.error("Error searching: {}", e.getMessage(), e);
-            return SearchResponse.builder()
-                    .results(List.of())
-                    .totalHits(0)
-                    .query(request.getQuery())
-                    .searchTimeMs(0)
-                    .build();
+            List<BatchSearchResponse.QueryResult> failed = requests.stream()
+                    .map(request -> BatchSearchResponse.QueryResult.builder()
+                            .response(emptySearchResponse(request, e))
+                            .build())
+                    .toList();
+            return CompletableFuture.completedFuture(batchSearchResponse(failed, 0, startTime));
         }
+        long embeddingTimeMs = System.currentTimeMillis() - startTime;
+
+        BatchSearchResponse.QueryResult[] results = new BatchSearchResponse.QueryResult[requests.size()];
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(requests.size());
+        int lanes = Math.max(1, Math.min(searchConfig.getBatchParallelism(), requests.size()));
+        for (int lane = 0; lane < lanes; lane++) {
+            dispatchBatchSearches(requests, embeddings, results, next, remaining, done);
+        }
+
+        return done.thenApply(ignored ->
+                batchSearchResponse(List.of(results), embeddingTimeMs, startTime));
+    }
+
+    /**
+     * Work through the batch on one parallelism lane. Searches that complete immediately
+     * (cache hits, in-process stores) are handled in a loop; otherwise the lane resumes on
+     * the common pool, off the store client's I/O thread. A lane stops once the batch failed.
+     */
+    private void dispatchBatchSearches(List<SearchRequest> requests, List<float[]> embeddings,
+                                       BatchSearchResponse.QueryResult[] results, AtomicInteger next,
+                                       AtomicInteger remaining, CompletableFuture<Void> done) {
+        int index;
+        while (!done.isDone() && (index = next.getAndIncrement()) < requests.size()) {
+            SearchRequest request = withLocalIds(requests.get(index));
+            float[] embedding = embeddings.get(index);
+            long dispatchTime = System.currentTimeMillis();
+
+            CompletableFuture<SearchResponse> search;
+            try {
+                search = searchResultCache.get(request, () -> search(request, embedding))
+                        .exceptionally(e -> {
+                            if (unwrap(e) instanceof StoreUnavailableException unavailable) {
+                                throw unavailable;
+                            }
+                            return emptySearchResponse(request, e);
+                        });
+            } catch (Exception e) {
+                search = CompletableFuture.completedFuture(emptySearchResponse(request, e));
+            }
+
+            int slot = index;
+            if (!search.isDone()) {
+                CompletableFuture<SearchResponse> pending = search;
+                pending.whenCompleteAsync((response, error) -> {
+                    if (completeBatchSearch(results, slot, pending, dispatchTime, remaining, done)) {
+                        dispatchBatchSearches(requests, embeddings, results, next, remaining, done);
+                    }
+                });
+                return;
+            }
+            if (!completeBatchSearch(results, slot, search, dispatchTime, remaining, done)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Record a finished search. Returns false if it failed, in which case the batch is
+     * failed with the same error.
+     */
+    private boolean completeBatchSearch(BatchSearchResponse.QueryResult[] results, int index,
+                                        CompletableFuture<SearchResponse> search, long dispatchTime,
+                                        AtomicInteger remaining, CompletableFuture<Void> done) {
+        if (search.state() == Future.State.FAILED) {
+            done.completeExceptionally(search.exceptionNow());
+            return false;
+        }
+        results[index] = BatchSearchResponse.QueryResult.builder()
+                .response(search.resultNow())
+                .elapsedMs(System.currentTimeMillis() - dispatchTime)
+                .build();
+        if (remaining.decrementAndGet() == 0) {
+            done.complete(null);
+        }
+        return true;
+    }
+
+    private BatchSearchResponse batchSearchResponse(List<BatchSearchResponse.QueryResult> results,
+                                                    long embeddingTimeMs, long startTime) {
+        return BatchSearchResponse.builder()
+                .results(results)
+                .totalQueries(results.size())
+                .embeddingTimeMs(embeddingTimeMs)
+                .elapsedMs(System.currentTimeMillis() - startTime)
+                .build();
+    }
+
+    /**
+     * Search the store. A re-rank is CPU-bound, so it runs on the common pool rather than
+     * on the thread that completed the store call.
+     */
+    private CompletableFuture<SearchResponse> search(SearchRequest request, float[] queryEmbedding) {
+        boolean reranked = isReranked(request);
+        SearchRequest storeRequest = reranked ? candidateRequest(request) : storeRequest(request);
+        long startTime = System.nanoTime();
+        CompletableFuture<SearchResponse> candidates = vectorStore.searchAsync(queryEmbedding, storeRequest)
+                .whenComplete((response, error) -> metrics.record(VectorMetrics.STORE_SEARCH, startTime,
+                        "store", vectorStore.getName(), "outcome", VectorMetrics.outcome(error == null)));
+        if (!reranked) {
+            return candidates.thenApply(response -> {
+                response.setQuery(request.getQuery());
+                return response;
+            });
+        }
+        return candidates.thenApplyAsync(response -> {
+            rerank(request, queryEmbedding, response);
+            response.setQuery(request.getQuery());
+            return response;
+        });
+    }
+
+    /**
+     * Whether to re-rank exactly in the service. Hybrid searches never are: re-ranking on
+     * cosine alone would replace the store's BM25 and vector fusion.
+     */
+    private boolean isReranked(SearchRequest request) {
+        if (request.getMode() == SearchMode.HYBRID) {
+            return false;
+        }
+        return request.getRerank() != null ? request.getRerank() : searchConfig.isRerankEnabled();
+    }
+
+    /**
+     * The store search for a request that is not re-ranked. {@code rerank} is cleared so
+     * the store never fetches embeddings that would only be thrown away.
+     */
+    private static SearchRequest storeRequest(SearchRequest request) {
+        return request.getRerank() == null ? request : request.toBuilder().rerank(null).build();
+    }
+
+    /**
+     * The store search for a re-ranked request: more hits than asked for, with their embeddings.
+     */
+    private SearchRequest candidateRequest(SearchRequest request) {
+        int limit = request.getLimit() > 0 ? request.getLimit() : 5;
+        int candidates = Math.max(limit, Math.min(limit * searchConfig.getRerankCandidatesFactor(),
+                searchConfig.getRerankMaxCandidates()));
+        return request.toBuilder()
+                .rerank(true)
+                .limit(candidates)
+                .build();
+    }
+
+    private void rerank(SearchRequest request, float[] queryEmbedding, SearchResponse response) {
+        long startTime = System.nanoTime();
+        int limit = request.getLimit() > 0 ? request.getLimit() : 5;
+        double mmrLambda = request.getMmrLambda() != null ? request.getMmrLambda() : searchConfig.getMmrLambda();
+        response.setResults(ExactReranker.rerank(queryEmbedding, response.getResults(), limit, mmrLambda));
+        metrics.record(VectorMetrics.RERANK, startTime, "kernel", VectorOps.isSimd() ? "simd" : "scalar");
+    }
+
+    private static String contentTypeTag(EmbeddingRequest request) {
+        return (request.getContentType() != null ? request.getContentType() : ContentType.TEXT).name();
+    }
+
+    private SearchResponse emptySearchResponse(SearchRequest request, Throwable error) {
+        Throwable cause = unwrap(error);
+        log.error("Error searching: {}", cause.getMessage(), cause);
+        return SearchResponse.builder()
+                .results(List.of())
+                .totalHits(0)
+                .query(request.getQuery())
+                .searchTimeMs(0)
+                .build();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
     }
 
-    private List<Float> generateEmbedding(String content, ContentType contentType) {
+    private float[] generateEmbedding(String content, ContentType contentType) {
         return switch (contentType) {
             case TEXT -> embeddingService.generateTextEmbedding(content);
             case IMAGE -> embeddingService.generateImageEmbedding(content);
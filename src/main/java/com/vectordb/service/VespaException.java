@@ -0,0 +1,28 @@
+package com.vectordb.service;
+
+/**
+ * Raised when a call to Vespa fails at the transport level or returns an error status.
+ */
+public class VespaException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+
+    public VespaException(String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = -1;
+    }
+
+    public VespaException(String message, int statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * HTTP status returned by Vespa, or -1 if no response was received.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
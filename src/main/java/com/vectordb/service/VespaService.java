@@ -1,195 +1,745 @@
 package com.vectordb.service;
 
+import ai.vespa.feed.client.DocumentId;
+import ai.vespa.feed.client.FeedClient;
+import ai.vespa.feed.client.OperationParameters;
+import ai.vespa.feed.client.Result;
+import ai.vespa.feed.client.ResultException;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.vectordb.config.ResilienceConfig;
+import com.vectordb.config.SearchConfig;
 import com.vectordb.config.VespaConfig;
+import com.vectordb.dto.SearchRequest;
 import com.vectordb.dto.SearchResponse;
 import com.vectordb.model.ContentType;
+import com.vectordb.model.HybridFusion;
+import com.vectordb.model.MetadataUpdate;
+import com.vectordb.model.SearchField;
+import com.vectordb.model.SearchMode;
 import com.vectordb.model.VectorDocument;
+import com.vectordb.store.StoreResult;
+import com.vectordb.store.StoreStatus;
+import com.vectordb.store.StoreUnavailableException;
+import com.vectordb.store.VectorStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.http.Outcome;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.hc.client5.http.classic.methods.HttpDelete;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.async.methods.SimpleResponseConsumer;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
+import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class VespaService {
+@ConditionalOnProperty(prefix = "store", name = "type", havingValue = "vespa", matchIfMissing = true)
+public class VespaService implements VectorStore {
 
     private final VespaConfig vespaConfig;
     private final CloseableHttpClient httpClient;
+    private final CloseableHttpAsyncClient httpAsyncClient;
     private final ObjectMapper objectMapper;
+    private final ObjectProvider<FeedClient> feedClient;
+    private final SearchResultCache searchResultCache;
+    private final VectorMetrics metrics;
+    private final ResilienceConfig resilienceConfig;
+    private final MeterRegistry meterRegistry;
+    private final AnnIndexLayout annIndexLayout;
+    private final SearchConfig searchConfig;
 
     private static final String NAMESPACE = "vectordb";
     private static final String DOC_TYPE = "embedding";
+    // Unparsed search response bytes buffered per request while the parser catches up
+    private static final int SEARCH_RESPONSE_WINDOW_BYTES = 64 * 1024;
+    // How the feed client words an operation that got an error status back
+    private static final Pattern FEED_STATUS = Pattern.compile("Status (\\d{3}) executing");
 
+    private CallGuard searchGuard;
+    private CallGuard ingestGuard;
+    private HedgePolicy hedgePolicy;
+    private RetryPolicy retryPolicy;
+    private SearchResponseParser searchResponseParser;
+    private DocumentJsonWriter documentJsonWriter;
+
+    @PostConstruct
+    public void init() {
+        this.searchGuard = newGuard("search", resilienceConfig.getSearchInitialLimit(),
+                resilienceConfig.getSearchMaxLimit(), resilienceConfig.getSearchLatencyThresholdMs());
+        this.ingestGuard = newGuard("ingest", resilienceConfig.getIngestInitialLimit(),
+                vespaConfig.getFeedMaxInFlight(), resilienceConfig.getIngestLatencyThresholdMs());
+        this.hedgePolicy = new HedgePolicy(resilienceConfig.getHedgePercentile(),
+                resilienceConfig.getHedgeMinDelayMs(), resilienceConfig.getHedgeMaxDelayMs(),
+                resilienceConfig.getHedgeMaxRatio());
+        this.retryPolicy = new RetryPolicy(resilienceConfig.getRetryMaxAttempts(),
+                resilienceConfig.getRetryBaseDelayMs(), resilienceConfig.getRetryMaxDelayMs());
+        Gauge.builder("vectordb.search.hedge.delay", hedgePolicy, HedgePolicy::delayMs)
+                .baseUnit("milliseconds").register(meterRegistry);
+        this.searchResponseParser = new SearchResponseParser(objectMapper.getFactory());
+        this.documentJsonWriter = new DocumentJsonWriter(objectMapper.getFactory(), vespaConfig, annIndexLayout);
+    }
+
+    private CallGuard newGuard(String name, int initialLimit, int maxLimit, long latencyThresholdMs) {
+        return new CallGuard(name,
+                new AimdLimiter(initialLimit, resilienceConfig.getMinLimit(), maxLimit,
+                        resilienceConfig.getBackoffRatio(), latencyThresholdMs),
+                new CircuitBreaker(resilienceConfig.getBreakerFailureRate(), resilienceConfig.getBreakerWindow(),
+                        resilienceConfig.getBreakerMinimumCalls(), resilienceConfig.getBreakerOpenMs(),
+                        resilienceConfig.getBreakerHalfOpenCalls()),
+                meterRegistry);
+    }
+
+    /**
+     * Store a document, blocking until Vespa answers. A 429 or 503 answer is retried with
+     * jittered backoff; a put of the same document is idempotent.
+     *
+     * @throws StoreUnavailableException if the ingest circuit is open or its limit is reached
+     */
+    @Override
     public boolean storeDocument(VectorDocument document) {
         String documentUrl = buildDocumentUrl(document.getId());
         log.debug("Storing document at: {}", documentUrl);
 
         try {
-            ObjectNode fields = objectMapper.createObjectNode();
-            fields.put("content", document.getContent());
-            fields.put("content_type", document.getContentType().name());
-            fields.put("category", document.getCategory() != null ? document.getCategory() : "");
-            fields.put("description", document.getDescription() != null ? document.getDescription() : "");
-            fields.put("media_url", document.getMediaUrl() != null ? document.getMediaUrl() : "");
-            fields.put("created_at", document.getCreatedAt().toEpochMilli());
-
-            // Add embedding as tensor
-            ObjectNode embeddingTensor = objectMapper.createObjectNode();
-            ArrayNode values = objectMapper.createArrayNode();
-            for (Float value : document.getEmbedding()) {
-                values.add(value);
-            }
-            embeddingTensor.set("values", values);
-            fields.set("embedding", embeddingTensor);
-
-            ObjectNode requestBody = objectMapper.createObjectNode();
-            requestBody.set("fields", fields);
-
             HttpPost request = new HttpPost(documentUrl);
             request.setEntity(new StringEntity(
-                    objectMapper.writeValueAsString(requestBody),
+                    serializeDocument(document),
                     org.apache.hc.core5.http.ContentType.APPLICATION_JSON
             ));
 
+            for (int attempt = 1; ; attempt++) {
+                int statusCode = put(request);
+                if (statusCode >= 200 && statusCode < 300) {
+                    searchResultCache.invalidate();
+                    return true;
+                }
+                if (!RetryPolicy.isRetryableStatus(statusCode) || !retryPolicy.canRetry(attempt)) {
+                    return false;
+                }
+                retryCounter("put").increment();
+                Thread.sleep(retryPolicy.backoffMs(attempt));
+            }
+
+        } catch (IOException e) {
+            log.error("Error storing document in Vespa: {}", e.getMessage(), e);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private int put(HttpPost request) throws IOException {
+        CallGuard.Permit permit = ingestGuard.tryAcquire();
+        long startTime = System.nanoTime();
+        try {
             return httpClient.execute(request, response -> {
                 int statusCode = response.getCode();
+                permit.release(isHealthy(statusCode));
+                metrics.record(VectorMetrics.HTTP, startTime,
+                        "operation", "put", "outcome", VectorMetrics.outcome(statusCode));
                 String responseBody = EntityUtils.toString(response.getEntity());
                 log.debug("Vespa store response: {} - {}", statusCode, responseBody);
-                return statusCode >= 200 && statusCode < 300;
+                return statusCode;
             });
+        } catch (IOException e) {
+            permit.release(false);
+            metrics.record(VectorMetrics.HTTP, startTime, "operation", "put", "outcome", Outcome.UNKNOWN.name());
+            throw e;
+        }
+    }
 
+    /**
+     * Submit a single document to the feed client without waiting for Vespa to answer.
+     * Blocks the caller while the adaptive ingest limit is reached, which gives batch
+     * producers backpressure that follows Vespa's latency.
+     */
+    @Override
+    public CompletableFuture<StoreResult> storeDocumentAsync(VectorDocument document) {
+        String documentJson;
+        try {
+            documentJson = serializeDocument(document);
         } catch (IOException e) {
-            log.error("Error storing document in Vespa: {}", e.getMessage(), e);
+            log.error("Error serializing document {}: {}", document.getId(), e.getMessage());
+            return CompletableFuture.completedFuture(StoreResult.failure(document.getId(), e.getMessage()));
+        }
+
+        CallGuard.Permit permit;
+        try {
+            permit = ingestGuard.acquire(resilienceConfig.getIngestMaxWaitMs());
+        } catch (StoreUnavailableException e) {
+            return CompletableFuture.completedFuture(StoreResult.unavailable(document.getId(), e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.completedFuture(StoreResult.unavailable(document.getId(), "Interrupted"));
+        }
+
+        try {
+            OperationParameters parameters = OperationParameters.empty()
+                    .timeout(Duration.ofMillis(vespaConfig.getFeedTimeout()));
+            long startTime = System.nanoTime();
+            return feedClient.getObject().put(DocumentId.of(NAMESPACE, DOC_TYPE, document.getId()), documentJson, parameters)
+                    .handle((result, error) -> {
+                        Throwable cause = error != null ? feedCause(error) : null;
+                        permit.release(cause == null || !isOverload(cause));
+                        metrics.record(VectorMetrics.HTTP, startTime, "operation", "feed", "outcome",
+                                feedOutcome(result, cause));
+                        if (cause != null) {
+                            log.debug("Feed of document {} failed: {}", document.getId(), cause.getMessage());
+                            // A ResultException is Vespa rejecting the document; anything else is transient
+                            return cause instanceof ResultException
+                                    ? StoreResult.failure(document.getId(), cause.getMessage())
+                                    : StoreResult.unavailable(document.getId(), cause.getMessage());
+                        }
+                        if (result.type() != Result.Type.success) {
+                            return StoreResult.failure(document.getId(), result.resultMessage().orElse(result.type().name()));
+                        }
+                        searchResultCache.invalidate();
+                        return StoreResult.success(document.getId());
+                    });
+        } catch (RuntimeException e) {
+            permit.release(false);
+            log.error("Error submitting document {} to Vespa: {}", document.getId(), e.getMessage());
+            return CompletableFuture.completedFuture(StoreResult.unavailable(document.getId(), e.getMessage()));
+        }
+    }
+
+    /**
+     * Outcome tag for a feed client operation, in the Spring {@link Outcome} names used for
+     * the other Vespa calls. A rejected document or an unmet condition is a client error;
+     * a failure without an answer from Vespa is unknown.
+     */
+    private static String feedOutcome(Result result, Throwable cause) {
+        if (cause != null) {
+            return (cause instanceof ResultException ? Outcome.CLIENT_ERROR : Outcome.UNKNOWN).name();
+        }
+        return (result.type() == Result.Type.success ? Outcome.SUCCESS : Outcome.CLIENT_ERROR).name();
+    }
+
+    private static Throwable feedCause(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Whether a failed feed operation should shrink the ingest limit, by the same rule as
+     * {@link #isHealthy}. A ResultException is Vespa rejecting the document, and the feed
+     * client reports other error statuses, including a 429 or 503 it gave up retrying, as
+     * "Status <code> executing ...". Failures without a status are transport errors.
+     */
+    static boolean isOverload(Throwable cause) {
+        if (cause instanceof ResultException) {
             return false;
         }
+        Matcher status = FEED_STATUS.matcher(String.valueOf(cause.getMessage()));
+        return !status.lookingAt() || !isHealthy(Integer.parseInt(status.group(1)));
     }
 
-    public SearchResponse search(List<Float> queryEmbedding, ContentType preferredType, 
-                                  boolean includeMedia, int limit) {
+    /**
+     * Partial update through the feed client, assigning only the changed metadata fields.
+     * The condition on the document type makes an update of a missing document fail instead
+     * of silently doing nothing.
+     */
+    @Override
+    public CompletableFuture<StoreResult> updateFields(String documentId, MetadataUpdate update) {
+        String updateJson;
+        try {
+            long serializeStart = System.nanoTime();
+            updateJson = documentJsonWriter.writeUpdate(update);
+            metrics.record(VectorMetrics.SERIALIZE, serializeStart, "operation", "update");
+        } catch (IOException e) {
+            return CompletableFuture.completedFuture(StoreResult.failure(documentId, e.getMessage()));
+        }
+
+        CallGuard.Permit permit;
+        try {
+            permit = ingestGuard.acquire(resilienceConfig.getIngestMaxWaitMs());
+        } catch (StoreUnavailableException e) {
+            return CompletableFuture.completedFuture(StoreResult.unavailable(documentId, e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.completedFuture(StoreResult.unavailable(documentId, "Interrupted"));
+        }
+
+        try {
+            OperationParameters parameters = OperationParameters.empty()
+                    .timeout(Duration.ofMillis(vespaConfig.getFeedTimeout()))
+                    .testAndSetCondition(DOC_TYPE);
+            long startTime = System.nanoTime();
+            return feedClient.getObject().update(DocumentId.of(NAMESPACE, DOC_TYPE, documentId), updateJson, parameters)
+                    .handle((result, error) -> {
+                        Throwable cause = error != null ? feedCause(error) : null;
+                        permit.release(cause == null || !isOverload(cause));
+                        metrics.record(VectorMetrics.HTTP, startTime, "operation", "update", "outcome",
+                                feedOutcome(result, cause));
+                        if (cause != null) {
+                            log.debug("Update of document {} failed: {}", documentId, cause.getMessage());
+                            return cause instanceof ResultException
+                                    ? StoreResult.failure(documentId, cause.getMessage())
+                                    : StoreResult.unavailable(documentId, cause.getMessage());
+                        }
+                        if (result.type() == Result.Type.conditionNotMet) {
+                            return StoreResult.notFound(documentId);
+                        }
+                        searchResultCache.invalidate();
+                        return StoreResult.success(documentId);
+                    });
+        } catch (RuntimeException e) {
+            permit.release(false);
+            log.error("Error submitting update of document {} to Vespa: {}", documentId, e.getMessage());
+            return CompletableFuture.completedFuture(StoreResult.unavailable(documentId, e.getMessage()));
+        }
+    }
+
+    /**
+     * Run a nearest-neighbor search, blocking until Vespa answers.
+     *
+     * @throws VespaException if Vespa cannot be reached
+     */
+    @Override
+    public SearchResponse search(float[] queryEmbedding, SearchRequest searchRequest) {
+        return await(searchAsync(queryEmbedding, searchRequest));
+    }
+
+    /**
+     * Run a nearest-neighbor search on the async client. No thread is held while
+     * the request is in flight. The future fails with {@link VespaException}.
+     */
+    @Override
+    public CompletableFuture<SearchResponse> searchAsync(float[] queryEmbedding, SearchRequest searchRequest) {
         long startTime = System.currentTimeMillis();
-        
+
+        byte[] body;
         try {
-            String yql = buildSearchYql(preferredType, includeMedia, limit);
-            String tensorString = buildTensorString(queryEmbedding);
-            
-            String searchUrl = vespaConfig.getSearchEndpoint() + "?" +
-                    "yql=" + URLEncoder.encode(yql, StandardCharsets.UTF_8) +
-                    "&ranking=semantic" +
-                    "&input.query(q)=" + URLEncoder.encode(tensorString, StandardCharsets.UTF_8);
+            String yql = buildSearchYql(searchRequest);
+            log.debug("Search YQL: {}", yql);
+
+            long serializeStart = System.nanoTime();
+            body = buildSearchBody(yql, queryEmbedding, searchRequest);
+            metrics.record(VectorMetrics.SERIALIZE, serializeStart, "operation", "search");
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new VespaException("Search failed: " + e.getMessage(), e));
+        }
 
-            log.debug("Search URL: {}", searchUrl);
+        boolean withEmbeddings = withEmbeddings(searchRequest);
+        return retrying("search", () -> hedged(body, withEmbeddings)).thenApply(response -> {
+            if (response.parseError() != null) {
+                log.error("Error parsing search response: {}", response.parseError().getMessage());
+                throw new VespaException("Search failed: " + response.parseError().getMessage(), response.parseError());
+            }
+            SearchResponse searchResponse = response.body();
+            searchResponse.setSearchTimeMs(System.currentTimeMillis() - startTime);
+            return searchResponse;
+        });
+    }
 
-            HttpGet request = new HttpGet(searchUrl);
+    /**
+     * Run {@code call}, retrying transport errors and overload statuses with jittered backoff.
+     */
+    private <T> CompletableFuture<T> retrying(String operation, Supplier<CompletableFuture<T>> call) {
+        return retrying(operation, call, 1);
+    }
 
-            return httpClient.execute(request, response -> {
-                String responseBody = EntityUtils.toString(response.getEntity());
-                log.debug("Search response: {}", responseBody);
-                return parseSearchResponse(responseBody, queryEmbedding.toString(), startTime);
+    private <T> CompletableFuture<T> retrying(String operation, Supplier<CompletableFuture<T>> call, int attempt) {
+        return call.get().exceptionallyCompose(error -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (!RetryPolicy.isRetryable(cause) || !retryPolicy.canRetry(attempt)) {
+                return CompletableFuture.failedFuture(cause);
+            }
+            retryCounter(operation).increment();
+            Executor delayed = CompletableFuture.delayedExecutor(retryPolicy.backoffMs(attempt), TimeUnit.MILLISECONDS);
+            return CompletableFuture.supplyAsync(() -> null, delayed)
+                    .thenCompose(ignored -> retrying(operation, call, attempt + 1));
+        });
+    }
+
+    /**
+     * Send a search, and a duplicate if the first has not answered within the hedge delay.
+     * The first successful answer wins; the result fails only if every request sent failed.
+     * The losing request is left to finish so its permit and latency are accounted normally.
+     */
+    private CompletableFuture<StreamingResponseConsumer.Response<SearchResponse>> hedged(byte[] body,
+                                                                                       boolean withEmbeddings) {
+        CompletableFuture<StreamingResponseConsumer.Response<SearchResponse>> result = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        hedgePolicy.onRequest();
+        sendSearch(body, withEmbeddings).whenComplete((response, error) -> settle(result, response, error, outstanding));
+
+        if (resilienceConfig.isHedgeEnabled()) {
+            CompletableFuture.delayedExecutor(hedgePolicy.delayMs(), TimeUnit.MILLISECONDS).execute(() -> {
+                if (result.isDone() || !hedgePolicy.tryHedge()) {
+                    return;
+                }
+                outstanding.incrementAndGet();
+                hedgeCounter("sent").increment();
+                sendSearch(body, withEmbeddings).whenComplete((response, error) -> {
+                    if (settle(result, response, error, outstanding)) {
+                        hedgeCounter("won").increment();
+                    }
+                });
             });
+        }
+        return result;
+    }
 
-        } catch (IOException e) {
-            log.error("Error searching in Vespa: {}", e.getMessage(), e);
-            return SearchResponse.builder()
-                    .results(new ArrayList<>())
-                    .totalHits(0)
-                    .searchTimeMs(System.currentTimeMillis() - startTime)
-                    .build();
+    private static boolean settle(CompletableFuture<StreamingResponseConsumer.Response<SearchResponse>> result,
+                                  StreamingResponseConsumer.Response<SearchResponse> response,
+                                  Throwable error, AtomicInteger outstanding) {
+        if (error == null) {
+            return result.complete(response);
         }
+        if (outstanding.decrementAndGet() == 0) {
+            result.completeExceptionally(error);
+        }
+        return false;
     }
 
-    private String buildSearchYql(ContentType preferredType, boolean includeMedia, int limit) {
-        StringBuilder yql = new StringBuilder("select * from sources * where ");
+    /**
+     * One search round trip. The body is parsed while it streams in, so a page of hits with
+     * embeddings is never held as raw bytes and objects at once. Non-2xx answers fail the
+     * future with their status so that retries can tell overload from bad requests; a body
+     * that fails to parse is returned as such and not retried.
+     */
+    private CompletableFuture<StreamingResponseConsumer.Response<SearchResponse>> sendSearch(byte[] body,
+                                                                                           boolean withEmbeddings) {
+        SimpleHttpRequest request = SimpleRequestBuilder.post(vespaConfig.getSearchEndpoint())
+                .setBody(body, org.apache.hc.core5.http.ContentType.APPLICATION_JSON)
+                .build();
+        StreamingResponseConsumer<SearchResponse> consumer = new StreamingResponseConsumer<>(responseBody -> {
+            long parseStart = System.nanoTime();
+            SearchResponse parsed = searchResponseParser.parse(responseBody, withEmbeddings);
+            metrics.record(VectorMetrics.PARSE, parseStart);
+            return parsed;
+        }, SEARCH_RESPONSE_WINDOW_BYTES);
+
+        long startTime = System.nanoTime();
+        return execute(request, consumer, StreamingResponseConsumer.Response::statusCode, "search", searchGuard)
+                .thenApply(response -> {
+                    int statusCode = response.statusCode();
+                    if (!response.isSuccessful()) {
+                        throw new VespaException("Search failed: HTTP " + statusCode, statusCode);
+                    }
+                    hedgePolicy.record(System.nanoTime() - startTime);
+                    return response;
+                });
+    }
+
+    private Counter retryCounter(String operation) {
+        return meterRegistry.counter("vectordb.retries", "operation", operation);
+    }
+
+    private Counter hedgeCounter(String result) {
+        return meterRegistry.counter("vectordb.search.hedges", "result", result);
+    }
+
+    /**
+     * Send a request on the async client under {@code guard}. When the guard rejects the call
+     * the future fails right away with {@link StoreUnavailableException}.
+     */
+    private CompletableFuture<SimpleHttpResponse> execute(SimpleHttpRequest request, String operation, CallGuard guard) {
+        return execute(request, SimpleResponseConsumer.create(), SimpleHttpResponse::getCode, operation, guard);
+    }
+
+    /**
+     * Variant with a custom response consumer; {@code statusCode} reads the status from its result.
+     */
+    private <T> CompletableFuture<T> execute(SimpleHttpRequest request, AsyncResponseConsumer<T> consumer,
+                                             ToIntFunction<T> statusCode, String operation, CallGuard guard) {
+        CallGuard.Permit permit;
+        try {
+            permit = guard.tryAcquire();
+        } catch (StoreUnavailableException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long startTime = System.nanoTime();
+        httpAsyncClient.execute(SimpleRequestProducer.create(request), consumer, new FutureCallback<>() {
+            @Override
+            public void completed(T response) {
+                int status = statusCode.applyAsInt(response);
+                permit.release(isHealthy(status));
+                metrics.record(VectorMetrics.HTTP, startTime,
+                        "operation", operation, "outcome", VectorMetrics.outcome(status));
+                future.complete(response);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                permit.release(false);
+                metrics.record(VectorMetrics.HTTP, startTime, "operation", operation, "outcome", Outcome.UNKNOWN.name());
+                log.error("Vespa request {} {} failed: {}", request.getMethod(), request.getRequestUri(), e.getMessage());
+                future.completeExceptionally(new VespaException("Vespa request failed: " + e.getMessage(), e));
+            }
+
+            @Override
+            public void cancelled() {
+                permit.release(false);
+                metrics.record(VectorMetrics.HTTP, startTime, "operation", operation, "outcome", Outcome.UNKNOWN.name());
+                future.completeExceptionally(new VespaException("Vespa request cancelled", -1));
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Whether a response status says Vespa is coping. 5xx and 429 count against the
+     * limiter and circuit breaker; other client errors do not.
+     */
+    private static boolean isHealthy(int statusCode) {
+        return statusCode < 500 && statusCode != 429;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Build the query. Attribute filters are ANDed with nearestNeighbor in the same query
+     * tree, so Vespa evaluates them first and the HNSW search only visits documents that
+     * pass; below the rank profile's approximate-threshold it switches to an exact search
+     * over the filtered set instead of walking the graph. A hybrid search ORs in
+     * {@code userQuery()}, so the query text's keyword matches are candidates too.
+     */
+    private String buildSearchYql(SearchRequest searchRequest) {
+        ContentType preferredType = searchRequest.getPreferredType();
+        boolean includeMedia = searchRequest.isIncludeMedia();
+        int limit = searchRequest.getLimit() > 0 ? searchRequest.getLimit() : 5;
+
+        StringBuilder yql = new StringBuilder("select ");
+        appendSelectedFields(yql, searchRequest.getFields(), withEmbeddings(searchRequest));
+        yql.append(" from sources * where ");
         
         if (preferredType != null && !includeMedia) {
             yql.append("content_type contains '").append(preferredType.name()).append("' and ");
         } else if (!includeMedia) {
             yql.append("content_type contains 'TEXT' and ");
         }
+        appendAttributeFilters(yql, searchRequest);
         
-        yql.append("{targetHits: ").append(limit).append("}nearestNeighbor(embedding, q)");
+        boolean hybrid = searchRequest.getMode() == SearchMode.HYBRID;
+        if (hybrid) {
+            yql.append('(');
+        }
+        int targetHits = searchRequest.getTargetHits() != null ? searchRequest.getTargetHits()
+                : annIndexLayout.isReranked() ? limit * vespaConfig.getRerankTargetHitsFactor() : limit;
+        yql.append("{targetHits: ").append(targetHits);
+        if (searchRequest.getExploreAdditionalHits() != null) {
+            yql.append(", hnsw.exploreAdditionalHits: ").append(searchRequest.getExploreAdditionalHits());
+        }
+        if (searchRequest.getApproximate() != null) {
+            yql.append(", approximate: ").append(searchRequest.getApproximate());
+        }
+        yql.append("}nearestNeighbor(").append(annIndexLayout.field()).append(", ")
+                .append(annIndexLayout.queryInput()).append(')');
+        if (hybrid) {
+            // Keyword matches of the query text join the nearest neighbors; filters apply to both
+            yql.append(" or userQuery())");
+        }
         yql.append(" limit ").append(limit);
         
         return yql.toString();
     }
 
-    private String buildTensorString(List<Float> embedding) {
-        String values = embedding.stream()
-                .map(String::valueOf)
-                .collect(Collectors.joining(","));
-        return "[" + values + "]";
+    private void appendAttributeFilters(StringBuilder yql, SearchRequest searchRequest) {
+        if (searchRequest.getCategories() != null && !searchRequest.getCategories().isEmpty()) {
+            appendInFilter(yql, "category", searchRequest.getCategories());
+        }
+        if (searchRequest.getCreatedFrom() != null) {
+            yql.append("created_at >= ").append(searchRequest.getCreatedFrom().toEpochMilli()).append(" and ");
+        }
+        if (searchRequest.getCreatedUntil() != null) {
+            yql.append("created_at < ").append(searchRequest.getCreatedUntil().toEpochMilli()).append(" and ");
+        }
+        if (searchRequest.getIds() != null && !searchRequest.getIds().isEmpty()) {
+            appendInFilter(yql, "doc_id", searchRequest.getIds());
+        }
     }
 
-    private SearchResponse parseSearchResponse(String responseBody, String query, long startTime) {
-        List<SearchResponse.SearchResult> results = new ArrayList<>();
-        int totalHits = 0;
+    private static void appendInFilter(StringBuilder yql, String field, List<String> values) {
+        yql.append(field).append(" in (");
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                yql.append(", ");
+            }
+            appendQuoted(yql, values.get(i));
+        }
+        yql.append(") and ");
+    }
 
-        try {
-            JsonNode root = objectMapper.readTree(responseBody);
-            JsonNode rootNode = root.path("root");
-            
-            if (rootNode.has("children")) {
-                JsonNode children = rootNode.get("children");
-                for (JsonNode hit : children) {
-                    JsonNode fields = hit.path("fields");
-                    
-                    SearchResponse.SearchResult result = SearchResponse.SearchResult.builder()
-                            .id(hit.path("id").asText())
-                            .content(fields.path("content").asText())
-                            .contentType(ContentType.valueOf(fields.path("content_type").asText("TEXT")))
-                            .category(fields.path("category").asText())
-                            .description(fields.path("description").asText())
-                            .mediaUrl(fields.path("media_url").asText())
-                            .score(hit.path("relevance").asDouble())
-                            .build();
-                    
-                    results.add(result);
-                }
-                totalHits = rootNode.path("fields").path("totalCount").asInt(results.size());
+    /**
+     * Append a YQL string literal; quotes and backslashes in client values are escaped.
+     */
+    private static void appendQuoted(StringBuilder yql, String value) {
+        yql.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                yql.append('\\');
             }
-        } catch (Exception e) {
-            log.error("Error parsing search response: {}", e.getMessage(), e);
+            yql.append(c);
         }
+        yql.append('"');
+    }
 
-        return SearchResponse.builder()
-                .results(results)
-                .totalHits(totalHits)
-                .query(query)
-                .searchTimeMs(System.currentTimeMillis() - startTime)
-                .build();
+    private void appendSelectedFields(StringBuilder yql, List<SearchField> fields, boolean withEmbeddings) {
+        if (fields == null || fields.isEmpty()) {
+            yql.append('*');
+            return;
+        }
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                yql.append(", ");
+            }
+            yql.append(fields.get(i).getVespaName());
+        }
+        if (withEmbeddings) {
+            yql.append(", embedding");
+        }
+    }
+
+    /**
+     * Candidates for the in-service re-rank come back with their full-precision embeddings.
+     * {@code rerank} is only set on store requests that {@link VectorService} re-ranks.
+     */
+    private static boolean withEmbeddings(SearchRequest searchRequest) {
+        return Boolean.TRUE.equals(searchRequest.getRerank());
     }
 
+    /**
+     * Build the POST body for the query API. The query vector travels in the body
+     * instead of a URL-encoded GET parameter. Hybrid searches also send the query text,
+     * matched with weakAnd, and the fusion's rank profile and weights; re-rank candidates
+     * are fetched with the {@code rerank} summary, which adds the embedding.
+     */
+    private byte[] buildSearchBody(String yql, float[] queryEmbedding, SearchRequest searchRequest)
+            throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(512 + queryEmbedding.length * 8);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(body)) {
+            generator.writeStartObject();
+            generator.writeStringField("yql", yql);
+            if (searchRequest.getMode() == SearchMode.HYBRID) {
+                writeHybridParameters(generator, searchRequest);
+            } else {
+                generator.writeStringField("ranking", "semantic");
+            }
+            if (withEmbeddings(searchRequest)) {
+                generator.writeStringField("presentation.summary", "rerank");
+                generator.writeStringField("presentation.format.tensors", "short-value");
+            } else if (StringUtils.hasText(vespaConfig.getSummaryClass())) {
+                generator.writeStringField("presentation.summary", vespaConfig.getSummaryClass());
+            }
+            generator.writeStringField("input.query(q)", buildTensorString(queryEmbedding));
+            // The graph is searched with the coarse or quantized query; q re-ranks the top hits
+            String annInput = "input.query(" + annIndexLayout.queryInput() + ")";
+            if (annIndexLayout.isQuantized()) {
+                byte[] quantized = annIndexLayout.quantized(queryEmbedding);
+                generator.writeStringField(annInput, vespaConfig.isHexTensorEncoding()
+                        ? TensorEncoder.toQueryLiteral(quantized) : TensorEncoder.toJsonArray(quantized));
+            } else if (annIndexLayout.isCoarse()) {
+                generator.writeStringField(annInput, buildTensorString(annIndexLayout.coarse(queryEmbedding)));
+            }
+            if (annIndexLayout.isReranked()) {
+                generator.writeNumberField("ranking.rerankCount", vespaConfig.getRerankCount());
+            }
+            generator.writeEndObject();
+        }
+        return body.toByteArray();
+    }
+
+    private void writeHybridParameters(JsonGenerator generator, SearchRequest searchRequest) throws IOException {
+        HybridFusion fusion = searchRequest.getFusion() != null ? searchRequest.getFusion()
+                : searchConfig.getHybridFusion();
+        generator.writeStringField("query", searchRequest.getQuery());
+        generator.writeStringField("model.type", "weakAnd");
+        generator.writeStringField("ranking", fusion.getRankProfile());
+        if (fusion == HybridFusion.LINEAR) {
+            generator.writeNumberField("input.query(vector_weight)", searchRequest.getVectorWeight() != null
+                    ? searchRequest.getVectorWeight() : searchConfig.getHybridVectorWeight());
+            generator.writeNumberField("input.query(text_weight)", searchRequest.getTextWeight() != null
+                    ? searchRequest.getTextWeight() : searchConfig.getHybridTextWeight());
+        }
+    }
+
+    private String serializeDocument(VectorDocument document) throws IOException {
+        long startTime = System.nanoTime();
+        String json = documentJsonWriter.write(document);
+        metrics.record(VectorMetrics.SERIALIZE, startTime, "operation", "put");
+        return json;
+    }
+
+    private String buildTensorString(float[] embedding) {
+        if (vespaConfig.isHexTensorEncoding()) {
+            return TensorEncoder.toQueryLiteral(embedding, vespaConfig.getTensorCellType());
+        }
+        return TensorEncoder.toJsonArray(embedding);
+    }
+
+    @Override
     public boolean deleteDocument(String documentId) {
-        String documentUrl = buildDocumentUrl(documentId);
-        
         try {
-            HttpDelete request = new HttpDelete(documentUrl);
-            return httpClient.execute(request, response -> {
-                int statusCode = response.getCode();
-                return statusCode >= 200 && statusCode < 300;
-            });
-        } catch (IOException e) {
+            return await(deleteDocumentAsync(documentId));
+        } catch (VespaException e) {
             log.error("Error deleting document from Vespa: {}", e.getMessage(), e);
             return false;
         }
     }
 
+    /**
+     * Delete a document on the async client. Completes with {@code false} on a non-2xx status.
+     */
+    public CompletableFuture<Boolean> deleteDocumentAsync(String documentId) {
+        SimpleHttpRequest request = SimpleRequestBuilder.delete(buildDocumentUrl(documentId)).build();
+        return execute(request, "delete", ingestGuard).thenApply(response -> {
+            int statusCode = response.getCode();
+            boolean deleted = statusCode >= 200 && statusCode < 300;
+            if (deleted) {
+                searchResultCache.invalidate();
+            }
+            return deleted;
+        });
+    }
+
     public boolean checkHealth() {
         try {
             HttpGet request = new HttpGet(vespaConfig.getStatusEndpoint());
@@ -203,14 +753,15 @@ public class VespaService {
         }
     }
 
-    public VespaStatus getStatus() {
+    @Override
+    public StoreStatus getStatus() {
         try {
             HttpGet request = new HttpGet(vespaConfig.getEndpoint() + "/state/v1/health");
             return httpClient.execute(request, response -> {
                 int statusCode = response.getCode();
                 String body = EntityUtils.toString(response.getEntity());
                 
-                VespaStatus status = new VespaStatus();
+                StoreStatus status = new StoreStatus();
                 status.setConnected(statusCode == 200);
                 
                 if (statusCode == 200) {
@@ -221,18 +772,34 @@ public class VespaService {
                     status.setStatus("unhealthy");
                     status.setMessage("HTTP " + statusCode);
                 }
+                status.setDetails(guardDetails());
                 
                 return status;
             });
         } catch (IOException e) {
-            VespaStatus status = new VespaStatus();
+            StoreStatus status = new StoreStatus();
             status.setConnected(false);
             status.setStatus("unreachable");
             status.setMessage(e.getMessage());
+            status.setDetails(guardDetails());
             return status;
         }
     }
 
+    private Map<String, Object> guardDetails() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        for (CallGuard guard : List.of(searchGuard, ingestGuard)) {
+            details.put(guard.getName() + "Circuit", guard.getCircuitState().name());
+            details.put(guard.getName() + "Limit", guard.getLimit());
+        }
+        return details;
+    }
+
+    @Override
+    public String getName() {
+        return "vespa";
+    }
+
     private String buildDocumentUrl(String documentId) {
         return String.format("%s/%s/%s/docid/%s",
                 vespaConfig.getDocumentEndpoint(),
@@ -240,17 +807,4 @@ public class VespaService {
                 DOC_TYPE,
                 documentId);
     }
-
-    public static class VespaStatus {
-        private boolean connected;
-        private String status;
-        private String message;
-
-        public boolean isConnected() { return connected; }
-        public void setConnected(boolean connected) { this.connected = connected; }
-        public String getStatus() { return status; }
-        public void setStatus(String status) { this.status = status; }
-        public String getMessage() { return message; }
-        public void setMessage(String message) { this.message = message; }
-    }
 }
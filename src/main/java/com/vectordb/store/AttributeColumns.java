@@ -0,0 +1,72 @@
+package com.vectordb.store;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+
+/**
+ * Filterable attributes of the IVF store's ordinals, held on the heap the way Vespa holds
+ * attribute fields, so a scan can check filters without reading metadata from disk.
+ * Categories are dictionary-encoded. Writes are serialized by the caller; a column that
+ * grows is copied and republished, so readers never see a torn array.
+ */
+final class AttributeColumns {
+
+    private final Map<String, Integer> categoryCodes = new ConcurrentHashMap<>();
+    private volatile int[] categories = new int[1024];
+    private volatile long[] createdAt = new long[1024];
+
+    void set(int ordinal, String category, long createdAtMillis) {
+        if (ordinal >= categories.length) {
+            int capacity = Math.max(ordinal + 1, categories.length * 2);
+            long[] grownCreatedAt = Arrays.copyOf(createdAt, capacity);
+            grownCreatedAt[ordinal] = createdAtMillis;
+            createdAt = grownCreatedAt;
+            int[] grownCategories = Arrays.copyOf(categories, capacity);
+            grownCategories[ordinal] = code(category);
+            categories = grownCategories;
+            return;
+        }
+        createdAt[ordinal] = createdAtMillis;
+        categories[ordinal] = code(category);
+    }
+
+    void setCategory(int ordinal, String category) {
+        categories[ordinal] = code(category);
+    }
+
+    /**
+     * Predicate over ordinals for the filter's category set and created_at range; the id set
+     * and content type are checked by the store. Null when neither is restricted.
+     */
+    IntPredicate matcher(LocalSearchSupport.Filter filter) {
+        BitSet codes = null;
+        if (filter.categories() != null) {
+            codes = new BitSet();
+            for (String category : filter.categories()) {
+                Integer code = categoryCodes.get(category);
+                if (code != null) {
+                    codes.set(code);
+                }
+            }
+        }
+        long from = filter.createdFrom();
+        long until = filter.createdUntil();
+        boolean range = from != Long.MIN_VALUE || until != Long.MAX_VALUE;
+        if (codes == null && !range) {
+            return null;
+        }
+
+        int[] categoryColumn = categories;
+        long[] createdAtColumn = createdAt;
+        BitSet accepted = codes;
+        return ordinal -> (accepted == null || accepted.get(categoryColumn[ordinal]))
+                && (!range || (createdAtColumn[ordinal] >= from && createdAtColumn[ordinal] < until));
+    }
+
+    private int code(String category) {
+        return categoryCodes.computeIfAbsent(category != null ? category : "", key -> categoryCodes.size());
+    }
+}
@@ -0,0 +1,649 @@
+package com.vectordb.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntPredicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Hierarchical navigable small world graph over unit-length float vectors, using
+ * cosine distance (1 - dot product).
+ * <p>
+ * Vectors live in fixed-size chunks of one flat {@code float[]} each, so a lookup never
+ * chases a per-node array. Inserts may run concurrently: a node's neighbor list for a
+ * layer is an immutable {@code int[]} replaced copy-on-write while holding that node's
+ * monitor, and searches read the current array without locking. Nodes are never
+ * removed; deletes set a tombstone that searches skip but still traverse.
+ *
+ * @param <T> payload stored with each node
+ */
+final class HnswGraph<T> {
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int[] NO_NEIGHBORS = new int[0];
+
+    private final int dimension;
+    private final int maxConnections;
+    private final int maxConnectionsLayer0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger deleted = new AtomicInteger();
+    private final Object growLock = new Object();
+    private final Object entryLock = new Object();
+    private final ConcurrentLinkedQueue<VisitedSet> visitedPool = new ConcurrentLinkedQueue<>();
+
+    // Outer arrays are replaced (never mutated in place) when a chunk is added
+    private volatile float[][] vectorChunks = new float[0][];
+    private volatile Node<T>[][] nodeChunks = newNodeChunks(0);
+    private volatile EntryPoint entryPoint;
+
+    HnswGraph(int dimension, int maxConnections, int efConstruction) {
+        this.dimension = dimension;
+        this.maxConnections = maxConnections;
+        this.maxConnectionsLayer0 = maxConnections * 2;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1.0 / Math.log(maxConnections);
+    }
+
+    int dimension() {
+        return dimension;
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    int deletedCount() {
+        return deleted.get();
+    }
+
+    T payload(int node) {
+        return node(node).payload;
+    }
+
+    /**
+     * Copy of the node's unit-length vector.
+     */
+    float[] vector(int node) {
+        int offset = (node & CHUNK_MASK) * dimension;
+        return Arrays.copyOfRange(vectorChunks[node >>> CHUNK_BITS], offset, offset + dimension);
+    }
+
+    /**
+     * Replace the payload with {@code update} applied to it, under the node's monitor so
+     * concurrent updates of one node are not lost.
+     */
+    void updatePayload(int node, UnaryOperator<T> update) {
+        Node<T> n = node(node);
+        synchronized (n) {
+            n.payload = update.apply(n.payload);
+        }
+    }
+
+    boolean isDeleted(int node) {
+        return node(node).deleted;
+    }
+
+    void markDeleted(int node) {
+        Node<T> n = node(node);
+        if (!n.deleted) {
+            n.deleted = true;
+            deleted.incrementAndGet();
+        }
+    }
+
+    /**
+     * Add a unit-length vector and return its node id. Safe to call from many threads.
+     */
+    int insert(float[] vector, T payload) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException(
+                    "Expected dimension " + dimension + " but got " + vector.length);
+        }
+        int id = size.getAndIncrement();
+        ensureChunk(id >>> CHUNK_BITS);
+        System.arraycopy(vector, 0, vectorChunks[id >>> CHUNK_BITS], (id & CHUNK_MASK) * dimension, dimension);
+
+        int level = randomLevel();
+        Node<T> node = new Node<>(level, payload);
+        nodeChunks[id >>> CHUNK_BITS][id & CHUNK_MASK] = node;
+
+        EntryPoint entry = entryPoint;
+        if (entry == null) {
+            synchronized (entryLock) {
+                entry = entryPoint;
+                if (entry == null) {
+                    entryPoint = new EntryPoint(id, level);
+                    return id;
+                }
+            }
+        }
+
+        VisitedSet visited = acquireVisited();
+        try {
+            int current = entry.node;
+            float currentDistance = distance(vector, current);
+            for (int layer = entry.level; layer > level; layer--) {
+                current = greedyClosest(vector, current, currentDistance, layer);
+                currentDistance = distance(vector, current);
+            }
+            for (int layer = Math.min(level, entry.level); layer >= 0; layer--) {
+                NodeHeap candidates = searchLayer(vector, current, efConstruction, layer, null, visited);
+                int[] neighbors = selectNeighbors(candidates.sortedAscending(), maxConnections);
+                setNeighbors(id, node, neighbors, layer);
+                for (int neighbor : neighbors) {
+                    link(neighbor, id, layer);
+                }
+                current = candidates.closest();
+            }
+        } finally {
+            releaseVisited(visited);
+        }
+
+        if (level > entry.level) {
+            synchronized (entryLock) {
+                if (level > entryPoint.level) {
+                    entryPoint = new EntryPoint(id, level);
+                }
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Up to {@code k} nearest live nodes accepted by {@code filter}, closest first.
+     * {@code ef} is the size of the layer-0 candidate list and is raised to at least {@code k}.
+     */
+    List<Hit> search(float[] query, int k, int ef, IntPredicate filter) {
+        EntryPoint entry = entryPoint;
+        if (entry == null || k <= 0) {
+            return List.of();
+        }
+        VisitedSet visited = acquireVisited();
+        try {
+            int current = entry.node;
+            float currentDistance = distance(query, current);
+            for (int layer = entry.level; layer > 0; layer--) {
+                current = greedyClosest(query, current, currentDistance, layer);
+                currentDistance = distance(query, current);
+            }
+            IntPredicate accept = filter == null
+                    ? node -> !node(node).deleted
+                    : node -> !node(node).deleted && filter.test(node);
+            NodeHeap results = searchLayer(query, current, Math.max(ef, k), 0, accept, visited);
+            return closestHits(results, k);
+        } finally {
+            releaseVisited(visited);
+        }
+    }
+
+    /**
+     * Exact nearest neighbors among the live nodes accepted by {@code filter}, scanning
+     * {@code candidates} or, when null, every node. Unlike the graph search its recall does
+     * not drop when the filter rejects most of the graph.
+     */
+    List<Hit> exactSearch(float[] query, int k, int[] candidates, IntPredicate filter) {
+        if (k <= 0) {
+            return List.of();
+        }
+        Node<T>[][] chunks = nodeChunks;
+        int count = candidates != null ? candidates.length : size.get();
+        NodeHeap results = new NodeHeap(k + 1, true);
+        for (int i = 0; i < count; i++) {
+            int node = candidates != null ? candidates[i] : i;
+            Node<T> n = (node >>> CHUNK_BITS) < chunks.length ? chunks[node >>> CHUNK_BITS][node & CHUNK_MASK] : null;
+            if (n == null || n.deleted || (filter != null && !filter.test(node))) {
+                continue;
+            }
+            float d = distance(query, node);
+            if (results.size() < k || d < results.topDistance()) {
+                results.push(node, d);
+                if (results.size() > k) {
+                    results.pop();
+                }
+            }
+        }
+        return closestHits(results, k);
+    }
+
+    /**
+     * Share of all nodes that are live and accepted by {@code filter}, counted exactly for
+     * small graphs and estimated from {@code samples} random nodes otherwise.
+     */
+    double acceptRate(IntPredicate filter, int samples) {
+        Node<T>[][] chunks = nodeChunks;
+        int total = Math.min(size.get(), chunks.length * CHUNK_SIZE);
+        if (total == 0) {
+            return 0;
+        }
+        int checks = Math.min(total, samples);
+        int accepted = 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < checks; i++) {
+            int node = checks == total ? i : random.nextInt(total);
+            Node<T> n = chunks[node >>> CHUNK_BITS][node & CHUNK_MASK];
+            if (n != null && !n.deleted && filter.test(node)) {
+                accepted++;
+            }
+        }
+        return (double) accepted / checks;
+    }
+
+    private static List<Hit> closestHits(NodeHeap results, int k) {
+        Sorted sorted = results.sortedAscending();
+        int count = Math.min(k, sorted.nodes().length);
+        List<Hit> hits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            hits.add(new Hit(sorted.nodes()[i], sorted.distances()[i]));
+        }
+        return hits;
+    }
+
+    private int greedyClosest(float[] query, int start, float startDistance, int layer) {
+        int current = start;
+        float currentDistance = startDistance;
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbor : neighbors(current, layer)) {
+                float d = distance(query, neighbor);
+                if (d < currentDistance) {
+                    currentDistance = d;
+                    current = neighbor;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Best-first search of one layer. Every reachable node is traversed, but only nodes
+     * accepted by {@code accept} (all nodes when null) enter the result heap.
+     */
+    private NodeHeap searchLayer(float[] query, int entry, int ef, int layer, IntPredicate accept,
+                                 VisitedSet visited) {
+        NodeHeap candidates = new NodeHeap(ef * 2, false);
+        NodeHeap results = new NodeHeap(ef, true);
+        visited.reset(size.get());
+
+        float entryDistance = distance(query, entry);
+        visited.add(entry);
+        candidates.push(entry, entryDistance);
+        if (accept == null || accept.test(entry)) {
+            results.push(entry, entryDistance);
+        }
+
+        while (!candidates.isEmpty()) {
+            float candidateDistance = candidates.topDistance();
+            if (results.size() >= ef && candidateDistance > results.topDistance()) {
+                break;
+            }
+            int candidate = candidates.pop();
+            for (int neighbor : neighbors(candidate, layer)) {
+                if (!visited.add(neighbor)) {
+                    continue;
+                }
+                float d = distance(query, neighbor);
+                if (results.size() < ef || d < results.topDistance()) {
+                    candidates.push(neighbor, d);
+                    if (accept == null || accept.test(neighbor)) {
+                        results.push(neighbor, d);
+                        if (results.size() > ef) {
+                            results.pop();
+                        }
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Neighbor selection heuristic from the HNSW paper: keep a candidate only if it is closer
+     * to the base than to every neighbor already kept, then top up with the pruned ones so
+     * the node keeps its full degree.
+     */
+    private int[] selectNeighbors(Sorted candidates, int max) {
+        int[] nodes = candidates.nodes();
+        if (nodes.length <= max) {
+            return nodes;
+        }
+        int[] selected = new int[max];
+        int count = 0;
+        boolean[] taken = new boolean[nodes.length];
+        for (int i = 0; i < nodes.length && count < max; i++) {
+            int candidate = nodes[i];
+            float[] chunk = vectorChunks[candidate >>> CHUNK_BITS];
+            int offset = (candidate & CHUNK_MASK) * dimension;
+            boolean diverse = true;
+            for (int j = 0; j < count; j++) {
+                if (distance(chunk, offset, selected[j]) < candidates.distances()[i]) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[count++] = candidate;
+                taken[i] = true;
+            }
+        }
+        for (int i = 0; i < nodes.length && count < max; i++) {
+            if (!taken[i]) {
+                selected[count++] = nodes[i];
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Install a new node's selected neighbors on {@code layer}. Another inserter may already
+     * have linked to the node through this layer, so those edges are kept alongside the
+     * selection, under the node's monitor like every other change to its lists.
+     */
+    private void setNeighbors(int id, Node<T> node, int[] selected, int layer) {
+        int max = layer == 0 ? maxConnectionsLayer0 : maxConnections;
+        synchronized (node) {
+            int[] linked = node.neighbors.get(layer);
+            int[] merged = Arrays.copyOf(selected, selected.length + linked.length);
+            int size = selected.length;
+            for (int neighbor : linked) {
+                if (!contains(selected, neighbor)) {
+                    merged[size++] = neighbor;
+                }
+            }
+            merged = Arrays.copyOf(merged, size);
+            node.neighbors.set(layer, merged.length > max ? prune(id, merged, max) : merged);
+        }
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add {@code target} to {@code node}'s neighbor list on {@code layer}, shrinking the list
+     * with the selection heuristic when it overflows.
+     */
+    private void link(int node, int target, int layer) {
+        Node<T> n = node(node);
+        int max = layer == 0 ? maxConnectionsLayer0 : maxConnections;
+        synchronized (n) {
+            int[] current = n.neighbors.get(layer);
+            int[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = target;
+            if (grown.length > max) {
+                grown = prune(node, grown, max);
+            }
+            n.neighbors.set(layer, grown);
+        }
+    }
+
+    private int[] prune(int node, int[] neighbors, int max) {
+        float[] chunk = vectorChunks[node >>> CHUNK_BITS];
+        int offset = (node & CHUNK_MASK) * dimension;
+        NodeHeap heap = new NodeHeap(neighbors.length, false);
+        for (int neighbor : neighbors) {
+            heap.push(neighbor, distance(chunk, offset, neighbor));
+        }
+        return selectNeighbors(heap.drainAscending(), max);
+    }
+
+    private int[] neighbors(int node, int layer) {
+        Node<T> n = node(node);
+        if (n == null || layer > n.level) {
+            return NO_NEIGHBORS;
+        }
+        return n.neighbors.get(layer);
+    }
+
+    private Node<T> node(int id) {
+        return nodeChunks[id >>> CHUNK_BITS][id & CHUNK_MASK];
+    }
+
+    private float distance(float[] query, int node) {
+        return 1f - LocalSearchSupport.dot(query, vectorChunks[node >>> CHUNK_BITS], (node & CHUNK_MASK) * dimension);
+    }
+
+    private float distance(float[] chunk, int offset, int node) {
+        float[] other = vectorChunks[node >>> CHUNK_BITS];
+        int otherOffset = (node & CHUNK_MASK) * dimension;
+        float sum = 0;
+        for (int i = 0; i < dimension; i++) {
+            sum += chunk[offset + i] * other[otherOffset + i];
+        }
+        return 1f - sum;
+    }
+
+    private int randomLevel() {
+        double r = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return (int) (-Math.log(r) * levelMultiplier);
+    }
+
+    private void ensureChunk(int chunk) {
+        if (chunk < nodeChunks.length) {
+            return;
+        }
+        synchronized (growLock) {
+            int existing = nodeChunks.length;
+            if (chunk < existing) {
+                return;
+            }
+            float[][] vectors = Arrays.copyOf(vectorChunks, chunk + 1);
+            Node<T>[][] nodes = Arrays.copyOf(nodeChunks, chunk + 1);
+            for (int i = existing; i <= chunk; i++) {
+                vectors[i] = new float[CHUNK_SIZE * dimension];
+                nodes[i] = newNodeChunk();
+            }
+            vectorChunks = vectors;
+            nodeChunks = nodes;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T>[][] newNodeChunks(int count) {
+        return (Node<T>[][]) new Node[count][];
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node<T>[] newNodeChunk() {
+        return (Node<T>[]) new Node[CHUNK_SIZE];
+    }
+
+    private VisitedSet acquireVisited() {
+        VisitedSet visited = visitedPool.poll();
+        return visited != null ? visited : new VisitedSet();
+    }
+
+    private void releaseVisited(VisitedSet visited) {
+        visitedPool.offer(visited);
+    }
+
+    record Hit(int node, float distance) {
+    }
+
+    private record Sorted(int[] nodes, float[] distances) {
+    }
+
+    private record EntryPoint(int node, int level) {
+    }
+
+    private static final class Node<T> {
+        final int level;
+        volatile T payload;
+        final AtomicReferenceArray<int[]> neighbors;
+        volatile boolean deleted;
+
+        Node(int level, T payload) {
+            this.level = level;
+            this.payload = payload;
+            this.neighbors = new AtomicReferenceArray<>(level + 1);
+            for (int i = 0; i <= level; i++) {
+                neighbors.set(i, NO_NEIGHBORS);
+            }
+        }
+    }
+
+    /**
+     * Visited marks as generation stamps, so clearing between searches is a counter bump.
+     * Pooled rather than thread-local because requests run on short-lived virtual threads.
+     */
+    private static final class VisitedSet {
+        private int[] marks = new int[CHUNK_SIZE];
+        private int generation;
+
+        void reset(int capacity) {
+            if (marks.length < capacity) {
+                marks = new int[Math.max(capacity, marks.length * 2)];
+                generation = 0;
+            }
+            if (++generation == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                generation = 1;
+            }
+        }
+
+        /**
+         * Mark {@code node}; false if it was already marked in this generation.
+         */
+        boolean add(int node) {
+            if (node >= marks.length) {
+                marks = Arrays.copyOf(marks, Math.max(node + 1, marks.length * 2));
+            }
+            if (marks[node] == generation) {
+                return false;
+            }
+            marks[node] = generation;
+            return true;
+        }
+    }
+
+    /**
+     * Binary heap of (node, distance) pairs on primitive arrays; a max-heap keeps the worst
+     * result on top, a min-heap the best candidate.
+     */
+    private static final class NodeHeap {
+        private int[] nodes;
+        private float[] distances;
+        private int size;
+        private final boolean max;
+
+        NodeHeap(int capacity, boolean max) {
+            this.nodes = new int[Math.max(capacity, 4)];
+            this.distances = new float[nodes.length];
+            this.max = max;
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        float topDistance() {
+            return distances[0];
+        }
+
+        void push(int node, float distance) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                distances = Arrays.copyOf(distances, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(distance, distances[parent])) {
+                    break;
+                }
+                nodes[i] = nodes[parent];
+                distances[i] = distances[parent];
+                i = parent;
+            }
+            nodes[i] = node;
+            distances[i] = distance;
+        }
+
+        int pop() {
+            int top = nodes[0];
+            int lastNode = nodes[--size];
+            float lastDistance = distances[size];
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                int right = child + 1;
+                if (right < size && before(distances[right], distances[child])) {
+                    child = right;
+                }
+                if (!before(distances[child], lastDistance)) {
+                    break;
+                }
+                nodes[i] = nodes[child];
+                distances[i] = distances[child];
+                i = child;
+            }
+            nodes[i] = lastNode;
+            distances[i] = lastDistance;
+            return top;
+        }
+
+        /**
+         * Closest node in the heap.
+         */
+        int closest() {
+            int best = nodes[0];
+            float bestDistance = distances[0];
+            for (int i = 1; i < size; i++) {
+                if (distances[i] < bestDistance) {
+                    bestDistance = distances[i];
+                    best = nodes[i];
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Nodes ordered closest first, without consuming the heap.
+         */
+        Sorted sortedAscending() {
+            NodeHeap copy = new NodeHeap(size, false);
+            for (int i = 0; i < size; i++) {
+                copy.push(nodes[i], distances[i]);
+            }
+            return copy.drainAscending();
+        }
+
+        /**
+         * Pop everything from a min-heap, closest first.
+         */
+        Sorted drainAscending() {
+            int[] outNodes = new int[size];
+            float[] outDistances = new float[size];
+            for (int i = 0; i < outNodes.length; i++) {
+                outDistances[i] = distances[0];
+                outNodes[i] = pop();
+            }
+            return new Sorted(outNodes, outDistances);
+        }
+
+        private boolean before(float a, float b) {
+            return max ? a > b : a < b;
+        }
+    }
+}
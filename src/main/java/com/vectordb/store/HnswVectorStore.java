@@ -0,0 +1,191 @@
+package com.vectordb.store;
+
+import com.vectordb.config.StoreConfig;
+import com.vectordb.dto.SearchRequest;
+import com.vectordb.dto.SearchResponse;
+import com.vectordb.model.MetadataUpdate;
+import com.vectordb.model.VectorDocument;
+import com.vectordb.service.SearchResultCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+
+/**
+ * In-process vector store backed by an {@link HnswGraph}. Nothing is persisted, so it suits
+ * development, CI and small edge deployments that should not need a Vespa container.
+ * Scores are Vespa's angular closeness, so results rank and compare the same as with Vespa.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "store", name = "type", havingValue = "hnsw")
+public class HnswVectorStore implements VectorStore {
+
+    private static final int SELECTIVITY_SAMPLES = 256;
+
+    private final StoreConfig storeConfig;
+    private final SearchResultCache searchResultCache;
+
+    private final Map<String, Integer> nodesById = new ConcurrentHashMap<>();
+    private volatile HnswGraph<VectorDocument> graph;
+
+    @Override
+    public boolean storeDocument(VectorDocument document) {
+        try {
+            float[] vector = LocalSearchSupport.normalize(document.getEmbedding());
+            int node = graph(vector.length).insert(vector, LocalSearchSupport.metadataOf(document));
+            Integer previous = nodesById.put(document.getId(), node);
+            if (previous != null) {
+                graph.markDeleted(previous);
+            }
+            searchResultCache.invalidate();
+            log.debug("Document stored in HNSW index: {}", document.getId());
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Error storing document {}: {}", document.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public CompletableFuture<StoreResult> storeDocumentAsync(VectorDocument document) {
+        boolean stored = storeDocument(document);
+        return CompletableFuture.completedFuture(stored
+                ? StoreResult.success(document.getId())
+                : StoreResult.failure(document.getId(), "Could not index document"));
+    }
+
+    @Override
+    public SearchResponse search(float[] queryEmbedding, SearchRequest searchRequest) {
+        long startTime = System.currentTimeMillis();
+        HnswGraph<VectorDocument> current = graph;
+        List<SearchResponse.SearchResult> results = new ArrayList<>();
+
+        if (current != null && queryEmbedding.length == current.dimension()) {
+            int limit = LocalSearchSupport.limit(searchRequest);
+            boolean withEmbeddings = LocalSearchSupport.withEmbeddings(searchRequest);
+            for (HnswGraph.Hit hit : nearest(current, LocalSearchSupport.normalize(queryEmbedding), searchRequest)) {
+                if (results.size() == limit) {
+                    break;
+                }
+                SearchResponse.SearchResult result = LocalSearchSupport.toResult(current.payload(hit.node()),
+                        LocalSearchSupport.closeness(1f - hit.distance()), searchRequest.getFields());
+                if (withEmbeddings) {
+                    result.setEmbedding(current.vector(hit.node()));
+                }
+                results.add(result);
+            }
+        }
+
+        return SearchResponse.builder()
+                .results(results)
+                .totalHits(results.size())
+                .searchTimeMs(System.currentTimeMillis() - startTime)
+                .build();
+    }
+
+    /**
+     * Filters are checked during the graph search, so only matching nodes enter the result
+     * list. An id set, approximate=false, or a filter that accepts fewer than
+     * {@code store.hnsw-approximate-threshold} of the nodes switches to an exact scan, since
+     * a graph search through mostly rejected nodes loses recall.
+     */
+    private List<HnswGraph.Hit> nearest(HnswGraph<VectorDocument> current, float[] query, SearchRequest searchRequest) {
+        LocalSearchSupport.Filter filter = LocalSearchSupport.filter(searchRequest);
+        int targetHits = LocalSearchSupport.targetHits(searchRequest);
+        IntPredicate accept = filter.contentType() == null && !filter.hasAttributeFilters()
+                ? null
+                : node -> filter.matches(current.payload(node));
+
+        if (filter.ids() != null) {
+            int[] candidates = filter.ids().stream()
+                    .map(nodesById::get)
+                    .filter(Objects::nonNull)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            return current.exactSearch(query, targetHits, candidates, accept);
+        }
+        if (!LocalSearchSupport.isApproximate(searchRequest) || (accept != null
+                && current.acceptRate(accept, SELECTIVITY_SAMPLES) < storeConfig.getHnswApproximateThreshold())) {
+            return current.exactSearch(query, targetHits, null, accept);
+        }
+        int explore = searchRequest.getExploreAdditionalHits() != null ? searchRequest.getExploreAdditionalHits() : 0;
+        return current.search(query, targetHits, storeConfig.getHnswEfSearch() + explore, accept);
+    }
+
+    @Override
+    public CompletableFuture<SearchResponse> searchAsync(float[] queryEmbedding, SearchRequest searchRequest) {
+        return CompletableFuture.completedFuture(search(queryEmbedding, searchRequest));
+    }
+
+    /**
+     * Apply the update to the node's payload atomically; the graph and the vector are left as they are.
+     */
+    @Override
+    public CompletableFuture<StoreResult> updateFields(String documentId, MetadataUpdate update) {
+        Integer node = nodesById.get(documentId);
+        if (node == null) {
+            return CompletableFuture.completedFuture(StoreResult.notFound(documentId));
+        }
+        graph.updatePayload(node, update::applyTo);
+        searchResultCache.invalidate();
+        return CompletableFuture.completedFuture(StoreResult.success(documentId));
+    }
+
+    @Override
+    public boolean deleteDocument(String documentId) {
+        Integer node = nodesById.remove(documentId);
+        if (node == null) {
+            return false;
+        }
+        graph.markDeleted(node);
+        searchResultCache.invalidate();
+        return true;
+    }
+
+    @Override
+    public StoreStatus getStatus() {
+        HnswGraph<VectorDocument> current = graph;
+        StoreStatus status = new StoreStatus();
+        status.setConnected(true);
+        status.setStatus("up");
+        status.setMessage("In-process HNSW index");
+        status.setDetails(Map.of(
+                "documents", nodesById.size(),
+                "nodes", current != null ? current.size() : 0,
+                "deletedNodes", current != null ? current.deletedCount() : 0));
+        return status;
+    }
+
+    @Override
+    public String getName() {
+        return "hnsw";
+    }
+
+    /**
+     * The graph is sized by the first stored vector; later vectors must match its dimension.
+     */
+    private HnswGraph<VectorDocument> graph(int dimension) {
+        HnswGraph<VectorDocument> current = graph;
+        if (current == null) {
+            synchronized (this) {
+                current = graph;
+                if (current == null) {
+                    current = new HnswGraph<>(dimension, storeConfig.getHnswM(), storeConfig.getHnswEfConstruction());
+                    graph = current;
+                    log.info("Created HNSW index with dimension {}", dimension);
+                }
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,936 @@
+package com.vectordb.store;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vectordb.config.StoreConfig;
+import com.vectordb.dto.SearchRequest;
+import com.vectordb.dto.SearchResponse;
+import com.vectordb.model.MetadataUpdate;
+import com.vectordb.model.VectorDocument;
+import com.vectordb.service.SearchResultCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+
+/**
+ * Disk-resident vector store using an inverted-file (IVF) index. Vectors live in
+ * memory-mapped segment files, one chain of segments per k-means list, and are paged in by
+ * the OS only when a search probes their list; only the centroids are kept on the heap.
+ * <p>
+ * Until {@code store.ivf-training-size} vectors have been stored they go to a staging list.
+ * Once it is full, centroids are trained on it in the background, while writes keep going
+ * to staging, and later vectors are appended to the list of their nearest centroid. The
+ * staged vectors are then moved into their lists in the background, a batch at a time
+ * under the write lock; searches scan staging only until it is drained. Document metadata
+ * is appended to a side log and read only for the returned hits; category and created_at
+ * are also kept in heap columns so filters are checked while scanning. A filtered search
+ * keeps probing lists beyond {@code store.ivf-nprobe} until it has targetHits matches.
+ * <p>
+ * Files in {@code store.ivf-directory}:
+ * <ul>
+ *   <li>{@code index.properties}: dimension</li>
+ *   <li>{@code centroids.bin}: trained centroids, absent before training</li>
+ *   <li>{@code staging-*.seg}, {@code list-NNNNN-*.seg}: vector records
+ *       (ordinal, deleted flag, content type, vector)</li>
+ *   <li>{@code ordinals-*.seg}: per-document location of its metadata and vector; a vector
+ *       moved out of staging records its list, plus one, next to its slot</li>
+ *   <li>{@code documents.log}: length-prefixed metadata JSON, in ordinal order; metadata
+ *       updates are appended with a negative length and take over the ordinal's location</li>
+ * </ul>
+ * Restart re-maps these files; the id lookup used by writes and the attribute columns are
+ * rebuilt from the log in the background while unfiltered searches are already served.
+ * Writes go to the page cache and are forced to disk on shutdown, so they survive a
+ * process crash but not an OS crash (see {@link MappedSegments}).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "store", name = "type", havingValue = "ivf")
+public class IvfVectorStore implements VectorStore {
+
+    private static final int STAGING_LIST = -1;
+    private static final int VECTOR_HEADER_BYTES = 8;
+    private static final int ORDINAL_RECORD_BYTES = 24;
+    private static final int VECTORS_PER_SEGMENT = 1024;
+    private static final int ORDINALS_PER_SEGMENT = 65536;
+    private static final int KMEANS_ITERATIONS = 10;
+    private static final int MIGRATION_BATCH = 256;
+    // Metadata offsets in the ordinal table change on update and are read without the write lock
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final StoreConfig storeConfig;
+    private final SearchResultCache searchResultCache;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, Integer> ordinalsById = new ConcurrentHashMap<>();
+    private final AttributeColumns attributes = new AttributeColumns();
+    private final Object writeLock = new Object();
+
+    private Path directory;
+    private FileChannel documentLog;
+    private long documentLogSize;
+    private int dimension;
+    private MappedSegments ordinals;
+    private volatile MappedSegments staging;
+    private volatile Partitions partitions;
+    private volatile CompletableFuture<Void> idIndexReady;
+    // Set once every staged vector has been moved into its list
+    private volatile boolean stagingDrained;
+    // Guarded by writeLock; set while centroids are being trained
+    private CompletableFuture<Void> training;
+    // Guarded by writeLock; set while staged vectors are being moved into their lists
+    private CompletableFuture<Void> migration;
+    // Guarded by writeLock
+    private boolean closed;
+
+    /**
+     * Trained coarse quantizer and its lists, published together.
+     */
+    private record Partitions(float[][] centroids, MappedSegments[] lists) {
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            directory = Path.of(storeConfig.getIvfDirectory());
+            Files.createDirectories(directory);
+            documentLog = FileChannel.open(directory.resolve("documents.log"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            documentLogSize = documentLog.size();
+            ordinals = new MappedSegments(directory, "ordinals", ORDINAL_RECORD_BYTES, ORDINALS_PER_SEGMENT);
+
+            Path indexFile = directory.resolve("index.properties");
+            if (Files.exists(indexFile)) {
+                Properties properties = new Properties();
+                try (InputStream in = Files.newInputStream(indexFile)) {
+                    properties.load(in);
+                }
+                openVectorFiles(Integer.parseInt(properties.getProperty("dimension")));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open IVF store in " + storeConfig.getIvfDirectory(), e);
+        }
+
+        log.info("Opened IVF store in {} with {} vectors ({})", directory, ordinals.size(),
+                partitions != null ? partitions.lists().length + " lists" : "untrained");
+        idIndexReady = startIdIndexRebuild();
+        if (partitions != null) {
+            synchronized (writeLock) {
+                migration = startMigration();
+            }
+        }
+    }
+
+    private CompletableFuture<Void> startIdIndexRebuild() {
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(this::rebuildIdIndex);
+        rebuild.whenComplete((ignored, error) -> {
+            if (error != null) {
+                log.error("IVF id index rebuild failed; retried on the next write or filtered search: {}",
+                        error.getMessage(), error);
+            }
+        });
+        return rebuild;
+    }
+
+    /**
+     * Wait for the id index. A failed rebuild is started again rather than failing every
+     * later write and filtered search until a restart.
+     */
+    private void awaitIdIndex() {
+        CompletableFuture<Void> current = idIndexReady;
+        if (current.isCompletedExceptionally()) {
+            synchronized (writeLock) {
+                if (idIndexReady == current) {
+                    ordinalsById.clear();
+                    idIndexReady = startIdIndexRebuild();
+                }
+                current = idIndexReady;
+            }
+        }
+        current.join();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        synchronized (writeLock) {
+            closed = true;
+            ordinals.force();
+            if (staging != null) {
+                staging.force();
+            }
+            Partitions current = partitions;
+            if (current != null) {
+                for (MappedSegments list : current.lists()) {
+                    list.force();
+                }
+            }
+            documentLog.force(false);
+            documentLog.close();
+        }
+    }
+
+    @Override
+    public boolean storeDocument(VectorDocument document) {
+        try {
+            float[] vector = LocalSearchSupport.normalize(document.getEmbedding());
+            byte[] metadata = objectMapper.writeValueAsBytes(LocalSearchSupport.metadataOf(document));
+            awaitIdIndex();
+
+            synchronized (writeLock) {
+                if (staging == null) {
+                    createVectorFiles(vector.length);
+                } else if (vector.length != dimension) {
+                    throw new IllegalArgumentException(
+                            "Expected dimension " + dimension + " but got " + vector.length);
+                }
+
+                Partitions current = partitions;
+                int list = current != null ? KMeans.nearest(current.centroids(), vector) : STAGING_LIST;
+                MappedSegments target = list == STAGING_LIST ? staging : current.lists()[list];
+
+                int ordinal = ordinals.size();
+                attributes.set(ordinal, document.getCategory(), createdAtMillis(document));
+                appendDocument(ordinal, (byte) document.getContentType().ordinal(), vector, metadata, list, target);
+
+                Integer previous = ordinalsById.put(document.getId(), ordinal);
+                if (previous != null) {
+                    markDeleted(previous);
+                }
+                if (current == null && training == null && staging.size() >= storeConfig.getIvfTrainingSize()) {
+                    training = startTraining();
+                } else if (current != null && !stagingDrained && (migration == null || migration.isDone())) {
+                    migration = startMigration();
+                }
+            }
+            searchResultCache.invalidate();
+            log.debug("Document stored in IVF store: {}", document.getId());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.error("Error storing document {}: {}", document.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Write the metadata, then the vector, then the ordinal record that commits them; scans
+     * skip ordinals that are not yet in the ordinal table. If a step fails, the log is wound
+     * back so the next record overwrites the orphan, and a written vector is tombstoned.
+     */
+    private void appendDocument(int ordinal, byte contentType, float[] vector, byte[] metadata, int list,
+                                MappedSegments target) throws IOException {
+        long logSize = documentLogSize;
+        int slot = -1;
+        try {
+            long metadataOffset = appendMetadata(metadata, false);
+            slot = target.append((buffer, offset) -> writeVector(buffer, offset, ordinal, contentType, vector));
+            int vectorSlot = slot;
+            ordinals.append((buffer, offset) -> buffer
+                    .putLong(offset, metadataOffset)
+                    .putInt(offset + 8, metadata.length)
+                    .putInt(offset + 12, list)
+                    .putInt(offset + 16, vectorSlot));
+        } catch (IOException | RuntimeException e) {
+            documentLogSize = logSize;
+            if (slot >= 0) {
+                target.segmentOf(slot).put(target.offsetOf(slot) + 4, (byte) 1);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<StoreResult> storeDocumentAsync(VectorDocument document) {
+        boolean stored = storeDocument(document);
+        return CompletableFuture.completedFuture(stored
+                ? StoreResult.success(document.getId())
+                : StoreResult.failure(document.getId(), "Could not write document"));
+    }
+
+    @Override
+    public SearchResponse search(float[] queryEmbedding, SearchRequest searchRequest) {
+        long startTime = System.currentTimeMillis();
+        List<SearchResponse.SearchResult> results = new ArrayList<>();
+
+        MappedSegments stagingList = staging;
+        if (stagingList != null && queryEmbedding.length == dimension) {
+            float[] query = LocalSearchSupport.normalize(queryEmbedding);
+            LocalSearchSupport.Filter filter = LocalSearchSupport.filter(searchRequest);
+            int contentTypeCode = filter.contentType() != null ? filter.contentType().ordinal() : -1;
+            if (filter.hasAttributeFilters()) {
+                awaitIdIndex();
+            }
+            int committed = ordinals.size();
+            IntPredicate accept = attributes.matcher(filter);
+            TopHits top = new TopHits(LocalSearchSupport.targetHits(searchRequest));
+
+            if (filter.ids() != null) {
+                for (String id : filter.ids()) {
+                    Integer ordinal = ordinalsById.get(id);
+                    if (ordinal != null && ordinal < committed && (accept == null || accept.test(ordinal))) {
+                        score(ordinal, query, contentTypeCode, top);
+                    }
+                }
+            } else {
+                // A vector being moved can be live in staging and in its list at once; skip
+                // the list copy of any ordinal already seen in staging
+                BitSet staged = null;
+                if (!stagingDrained) {
+                    staged = new BitSet();
+                    scan(stagingList, query, contentTypeCode, accept, committed, top, staged, null);
+                }
+                Partitions current = partitions;
+                if (current != null) {
+                    int[] lists = nearestLists(current.centroids(), query, current.centroids().length);
+                    int nprobe = LocalSearchSupport.isApproximate(searchRequest) ? storeConfig.getIvfNprobe() : lists.length;
+                    for (int i = 0; i < lists.length && (i < nprobe || !top.isFull()); i++) {
+                        scan(current.lists()[lists[i]], query, contentTypeCode, accept, committed, top, null, staged);
+                    }
+                }
+            }
+
+            int[] hits = top.ordinalsDescending();
+            float[] scores = top.scoresDescending();
+            boolean withEmbeddings = LocalSearchSupport.withEmbeddings(searchRequest);
+            for (int i = 0; i < Math.min(hits.length, LocalSearchSupport.limit(searchRequest)); i++) {
+                try {
+                    SearchResponse.SearchResult result = LocalSearchSupport.toResult(readMetadata(hits[i]),
+                            LocalSearchSupport.closeness(scores[i]), searchRequest.getFields());
+                    if (withEmbeddings) {
+                        result.setEmbedding(readVector(hits[i]));
+                    }
+                    results.add(result);
+                } catch (IOException e) {
+                    log.warn("Cannot read metadata of ordinal {}: {}", hits[i], e.getMessage());
+                }
+            }
+        }
+
+        return SearchResponse.builder()
+                .results(results)
+                .totalHits(results.size())
+                .searchTimeMs(System.currentTimeMillis() - startTime)
+                .build();
+    }
+
+    @Override
+    public CompletableFuture<SearchResponse> searchAsync(float[] queryEmbedding, SearchRequest searchRequest) {
+        return CompletableFuture.completedFuture(search(queryEmbedding, searchRequest));
+    }
+
+    /**
+     * Append the updated metadata to the log and point the ordinal at it. The vector record
+     * stays where it is, so the document keeps its list and no training is involved.
+     */
+    @Override
+    public CompletableFuture<StoreResult> updateFields(String documentId, MetadataUpdate update) {
+        try {
+            awaitIdIndex();
+            synchronized (writeLock) {
+                Integer ordinal = ordinalsById.get(documentId);
+                if (ordinal == null) {
+                    return CompletableFuture.completedFuture(StoreResult.notFound(documentId));
+                }
+                VectorDocument updated = update.applyTo(readMetadata(ordinal));
+                byte[] metadata = objectMapper.writeValueAsBytes(updated);
+                long metadataOffset = appendMetadata(metadata, true);
+                MappedByteBuffer record = ordinals.segmentOf(ordinal);
+                int offset = ordinals.offsetOf(ordinal);
+                record.putInt(offset + 8, metadata.length);
+                LONGS.setRelease(record, offset, metadataOffset);
+                attributes.setCategory(ordinal, updated.getCategory());
+            }
+            searchResultCache.invalidate();
+            return CompletableFuture.completedFuture(StoreResult.success(documentId));
+        } catch (IOException | RuntimeException e) {
+            log.error("Error updating document {}: {}", documentId, e.getMessage());
+            return CompletableFuture.completedFuture(StoreResult.failure(documentId, e.getMessage()));
+        }
+    }
+
+    @Override
+    public boolean deleteDocument(String documentId) {
+        awaitIdIndex();
+        synchronized (writeLock) {
+            Integer ordinal = ordinalsById.remove(documentId);
+            if (ordinal == null) {
+                return false;
+            }
+            markDeleted(ordinal);
+        }
+        searchResultCache.invalidate();
+        return true;
+    }
+
+    @Override
+    public StoreStatus getStatus() {
+        Partitions current = partitions;
+        StoreStatus status = new StoreStatus();
+        status.setConnected(true);
+        CompletableFuture<Void> index = idIndexReady;
+        status.setStatus(index.isCompletedExceptionally() ? "unhealthy" : index.isDone() ? "up" : "loading");
+        status.setMessage("Memory-mapped IVF index in " + directory);
+        status.setDetails(Map.of(
+                "documents", ordinalsById.size(),
+                "vectors", ordinals.size(),
+                "staged", staging != null && !stagingDrained ? staging.size() : 0,
+                "lists", current != null ? current.lists().length : 0));
+        return status;
+    }
+
+    @Override
+    public String getName() {
+        return "ivf";
+    }
+
+    /**
+     * Score the live vectors of one list that pass the filters. The content type is in the
+     * vector record; the other attributes are checked on the heap columns before scoring.
+     * Live ordinals are added to {@code seen}, and ordinals in {@code skip} are passed over.
+     */
+    private void scan(MappedSegments list, float[] query, int contentTypeCode, IntPredicate accept, int committed,
+                      TopHits top, BitSet seen, BitSet skip) {
+        int remaining = list.size();
+        int recordBytes = VECTOR_HEADER_BYTES + 4 * dimension;
+        for (int index = 0; remaining > 0; index++) {
+            MappedByteBuffer segment = list.segment(index);
+            int count = Math.min(remaining, list.recordsPerSegment());
+            int offset = MappedSegments.HEADER_BYTES;
+            for (int r = 0; r < count; r++, offset += recordBytes) {
+                if (segment.get(offset + 4) != 0
+                        || (contentTypeCode >= 0 && segment.get(offset + 5) != contentTypeCode)) {
+                    continue;
+                }
+                int ordinal = segment.getInt(offset);
+                if (ordinal >= committed || (skip != null && skip.get(ordinal))) {
+                    continue;
+                }
+                if (seen != null) {
+                    seen.set(ordinal);
+                }
+                if (accept != null && !accept.test(ordinal)) {
+                    continue;
+                }
+                float score = 0;
+                int base = offset + VECTOR_HEADER_BYTES;
+                for (int i = 0; i < query.length; i++) {
+                    score += query[i] * segment.getFloat(base + 4 * i);
+                }
+                top.offer(ordinal, score);
+            }
+            remaining -= count;
+        }
+    }
+
+    /**
+     * Score one ordinal's vector, found through its ordinal record, if it is live and of the
+     * requested content type.
+     */
+    private void score(int ordinal, float[] query, int contentTypeCode, TopHits top) {
+        long location = location(ordinal);
+        MappedSegments vectors = vectors(listOf(location));
+        int slot = slotOf(location);
+        MappedByteBuffer segment = vectors.segmentOf(slot);
+        int offset = vectors.offsetOf(slot);
+        if (segment.get(offset + 4) != 0 || (contentTypeCode >= 0 && segment.get(offset + 5) != contentTypeCode)) {
+            return;
+        }
+        float score = 0;
+        int base = offset + VECTOR_HEADER_BYTES;
+        for (int i = 0; i < query.length; i++) {
+            score += query[i] * segment.getFloat(base + 4 * i);
+        }
+        top.offer(ordinal, score);
+    }
+
+    /**
+     * Copy of one ordinal's stored unit-length vector.
+     */
+    private float[] readVector(int ordinal) {
+        long location = location(ordinal);
+        MappedSegments vectors = vectors(listOf(location));
+        int slot = slotOf(location);
+        return readVector(vectors.segmentOf(slot), vectors.offsetOf(slot));
+    }
+
+    private float[] readVector(MappedByteBuffer segment, int offset) {
+        int base = offset + VECTOR_HEADER_BYTES;
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = segment.getFloat(base + 4 * i);
+        }
+        return vector;
+    }
+
+    private static void writeVector(MappedByteBuffer buffer, int offset, int ordinal, byte contentType,
+                                    float[] vector) {
+        buffer.putInt(offset, ordinal).put(offset + 4, (byte) 0).put(offset + 5, contentType);
+        int base = offset + VECTOR_HEADER_BYTES;
+        for (int i = 0; i < vector.length; i++) {
+            buffer.putFloat(base + 4 * i, vector[i]);
+        }
+    }
+
+    /**
+     * List and slot of an ordinal's vector, packed as {@code list << 32 | slot}. The slot
+     * and, for a vector moved out of staging, its list plus one are read as one long, so a
+     * concurrent move is never seen half done.
+     */
+    private long location(int ordinal) {
+        MappedByteBuffer record = ordinals.segmentOf(ordinal);
+        int offset = ordinals.offsetOf(ordinal);
+        long packed = (long) LONGS.getAcquire(record, offset + 16);
+        int moved = (int) (packed >>> 32);
+        int list = moved != 0 ? moved - 1 : record.getInt(offset + 12);
+        return ((long) list << 32) | (packed & 0xFFFFFFFFL);
+    }
+
+    private static int listOf(long location) {
+        return (int) (location >> 32);
+    }
+
+    private static int slotOf(long location) {
+        return (int) location;
+    }
+
+    private MappedSegments vectors(int list) {
+        return list == STAGING_LIST ? staging : partitions.lists()[list];
+    }
+
+    private static int[] nearestLists(float[][] centroids, float[] query, int nprobe) {
+        TopHits top = new TopHits(Math.min(nprobe, centroids.length));
+        for (int c = 0; c < centroids.length; c++) {
+            top.offer(c, LocalSearchSupport.dot(query, centroids[c], 0));
+        }
+        return top.ordinalsDescending();
+    }
+
+    /**
+     * Read an ordinal's metadata. The length comes from the log record's own prefix, so a
+     * concurrent update can never pair one record's offset with another's length.
+     */
+    private VectorDocument readMetadata(int ordinal) throws IOException {
+        MappedByteBuffer record = ordinals.segmentOf(ordinal);
+        long position = (long) LONGS.getAcquire(record, ordinals.offsetOf(ordinal));
+        ByteBuffer prefix = readFully(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN), position - 4);
+        ByteBuffer buffer = readFully(ByteBuffer.allocate(Math.abs(prefix.getInt(0))), position);
+        return objectMapper.readValue(buffer.array(), VectorDocument.class);
+    }
+
+    private ByteBuffer readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (documentLog.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Truncated document log");
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Append a metadata record and return the offset of its JSON. Updates are written with a
+     * negative length, which tells them apart from stored documents when reading the log.
+     */
+    private long appendMetadata(byte[] metadata, boolean update) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + metadata.length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(update ? -metadata.length : metadata.length).put(metadata).flip();
+        long position = documentLogSize;
+        while (buffer.hasRemaining()) {
+            position += documentLog.write(buffer, position);
+        }
+        long metadataOffset = documentLogSize + 4;
+        documentLogSize = position;
+        return metadataOffset;
+    }
+
+    private void markDeleted(int ordinal) {
+        long location = location(ordinal);
+        MappedSegments vectors = vectors(listOf(location));
+        int slot = slotOf(location);
+        vectors.segmentOf(slot).put(vectors.offsetOf(slot) + 4, (byte) 1);
+    }
+
+    private boolean isDeleted(int ordinal) {
+        long location = location(ordinal);
+        MappedSegments vectors = vectors(listOf(location));
+        int slot = slotOf(location);
+        return vectors.segmentOf(slot).get(vectors.offsetOf(slot) + 4) != 0;
+    }
+
+    private CompletableFuture<Void> startTraining() {
+        CompletableFuture<Void> run = CompletableFuture.runAsync(() -> {
+            try {
+                train();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        run.whenComplete((ignored, error) -> {
+            synchronized (writeLock) {
+                training = null;
+            }
+            if (error != null) {
+                log.error("IVF training failed; retried on the next write: {}", error.getMessage(), error);
+            }
+        });
+        return run;
+    }
+
+    /**
+     * Train centroids on a snapshot of the live staged vectors and open one list per
+     * centroid, without the write lock; only publishing the lists takes it. All staged
+     * vectors, including those staged meanwhile, are then moved into their lists.
+     */
+    private void train() throws IOException {
+        long startTime = System.currentTimeMillis();
+        MappedSegments stagingList = staging;
+        int staged = stagingList.size();
+        List<float[]> sample = new ArrayList<>(staged);
+        for (int slot = 0; slot < staged; slot++) {
+            MappedByteBuffer segment = stagingList.segmentOf(slot);
+            int offset = stagingList.offsetOf(slot);
+            if (segment.get(offset + 4) != 0) {
+                continue;
+            }
+            sample.add(readVector(segment, offset));
+        }
+        int lists = Math.min(storeConfig.getIvfLists(), sample.size());
+        if (lists == 0) {
+            return;
+        }
+
+        float[][] centroids = KMeans.train(sample.toArray(new float[0][]), lists, KMEANS_ITERATIONS, 42L);
+        ByteBuffer buffer = ByteBuffer.allocate(8 + 4 * lists * dimension).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(lists).putInt(dimension);
+        for (float[] centroid : centroids) {
+            for (float value : centroid) {
+                buffer.putFloat(value);
+            }
+        }
+        Partitions trained = new Partitions(centroids, openLists(lists));
+        synchronized (writeLock) {
+            Path temp = directory.resolve("centroids.bin.tmp");
+            Files.write(temp, buffer.array());
+            Files.move(temp, directory.resolve("centroids.bin"), StandardCopyOption.REPLACE_EXISTING);
+            partitions = trained;
+            migration = startMigration();
+        }
+        log.info("Trained {} IVF lists on {} vectors in {} ms",
+                lists, sample.size(), System.currentTimeMillis() - startTime);
+    }
+
+    private CompletableFuture<Void> startMigration() {
+        CompletableFuture<Void> run = CompletableFuture.runAsync(() -> {
+            try {
+                migrateStaging();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        run.whenComplete((ignored, error) -> {
+            synchronized (writeLock) {
+                migration = null;
+            }
+            if (error != null) {
+                log.error("Moving staged IVF vectors failed; retried on the next write: {}",
+                        error.getMessage(), error);
+            }
+        });
+        return run;
+    }
+
+    /**
+     * Move every live staged vector into the list of its nearest centroid, a batch at a time
+     * under the write lock so writes and deletes interleave. Nothing is staged once the
+     * lists are published, so the staging size read here is final.
+     */
+    private void migrateStaging() throws IOException {
+        long startTime = System.currentTimeMillis();
+        Partitions current = partitions;
+        int staged = staging.size();
+        int moved = 0;
+        for (int start = 0; start < staged; start += MIGRATION_BATCH) {
+            synchronized (writeLock) {
+                if (closed) {
+                    return;
+                }
+                int committed = ordinals.size();
+                for (int slot = start; slot < Math.min(staged, start + MIGRATION_BATCH); slot++) {
+                    if (moveStaged(current, slot, committed)) {
+                        moved++;
+                    }
+                }
+            }
+        }
+        stagingDrained = true;
+        if (moved > 0) {
+            log.info("Moved {} staged vectors into their IVF lists in {} ms",
+                    moved, System.currentTimeMillis() - startTime);
+        }
+    }
+
+    /**
+     * Append one staged vector to its list, point its ordinal at the copy and tombstone the
+     * staged record, in that order: a search sees it live in at least one of the two.
+     * A staged copy that its ordinal no longer points to, left by a crash after the move, is
+     * only tombstoned. Called under the write lock.
+     */
+    private boolean moveStaged(Partitions current, int slot, int committed) throws IOException {
+        MappedByteBuffer segment = staging.segmentOf(slot);
+        int offset = staging.offsetOf(slot);
+        if (segment.get(offset + 4) != 0) {
+            return false;
+        }
+        int ordinal = segment.getInt(offset);
+        if (ordinal >= committed) {
+            return false;
+        }
+        long location = location(ordinal);
+        if (listOf(location) != STAGING_LIST || slotOf(location) != slot) {
+            segment.put(offset + 4, (byte) 1);
+            return false;
+        }
+
+        float[] vector = readVector(segment, offset);
+        byte contentType = segment.get(offset + 5);
+        int list = KMeans.nearest(current.centroids(), vector);
+        int target = current.lists()[list].append(
+                (buffer, o) -> writeVector(buffer, o, ordinal, contentType, vector));
+        LONGS.setRelease(ordinals.segmentOf(ordinal), ordinals.offsetOf(ordinal) + 16,
+                ((long) (list + 1) << 32) | (target & 0xFFFFFFFFL));
+        segment.put(offset + 4, (byte) 1);
+        return true;
+    }
+
+    private void createVectorFiles(int dimension) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("dimension", String.valueOf(dimension));
+        try (var out = Files.newOutputStream(directory.resolve("index.properties"))) {
+            properties.store(out, "IVF store layout");
+        }
+        openVectorFiles(dimension);
+    }
+
+    private void openVectorFiles(int dimension) throws IOException {
+        this.dimension = dimension;
+        this.staging = new MappedSegments(directory, "staging",
+                VECTOR_HEADER_BYTES + 4 * dimension, VECTORS_PER_SEGMENT);
+
+        Path centroidFile = directory.resolve("centroids.bin");
+        if (Files.exists(centroidFile)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(centroidFile)).order(ByteOrder.LITTLE_ENDIAN);
+            int lists = buffer.getInt();
+            buffer.getInt();
+            float[][] centroids = new float[lists][dimension];
+            for (float[] centroid : centroids) {
+                buffer.asFloatBuffer().get(centroid);
+                buffer.position(buffer.position() + 4 * dimension);
+            }
+            partitions = new Partitions(centroids, openLists(lists));
+        }
+        discardUncommitted(staging, STAGING_LIST);
+        if (partitions != null) {
+            for (int i = 0; i < partitions.lists().length; i++) {
+                discardUncommitted(partitions.lists()[i], i);
+            }
+        }
+    }
+
+    /**
+     * A crash between writing a vector and its ordinal record leaves one vector whose ordinal
+     * would be handed out again, and a crash while moving a staged vector leaves a copy its
+     * ordinal does not point to; tombstone either.
+     */
+    private void discardUncommitted(MappedSegments vectors, int list) {
+        int last = vectors.size() - 1;
+        if (last < 0) {
+            return;
+        }
+        MappedByteBuffer segment = vectors.segmentOf(last);
+        int offset = vectors.offsetOf(last);
+        int ordinal = segment.getInt(offset);
+        if (ordinal >= ordinals.size() || location(ordinal) != (((long) list << 32) | (last & 0xFFFFFFFFL))) {
+            segment.put(offset + 4, (byte) 1);
+        }
+    }
+
+    private MappedSegments[] openLists(int lists) throws IOException {
+        MappedSegments[] segments = new MappedSegments[lists];
+        for (int i = 0; i < lists; i++) {
+            segments[i] = new MappedSegments(directory, String.format("list-%05d", i),
+                    VECTOR_HEADER_BYTES + 4 * dimension, VECTORS_PER_SEGMENT);
+        }
+        return segments;
+    }
+
+    /**
+     * Map document ids to their latest live ordinal and fill the attribute columns, parsing
+     * only the filterable fields of each metadata record. Each ordinal is read at the offset
+     * its ordinal record points to, which is its latest update if it has one, so records
+     * the log holds for no ordinal (a store that failed or crashed midway) are never read.
+     */
+    private void rebuildIdIndex() {
+        long startTime = System.currentTimeMillis();
+        int total = ordinals.size();
+        try {
+            ByteBuffer prefix = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer record = ByteBuffer.allocate(1024);
+            for (int ordinal = 0; ordinal < total; ordinal++) {
+                if (isDeleted(ordinal)) {
+                    continue;
+                }
+                long position = (long) LONGS.getAcquire(ordinals.segmentOf(ordinal), ordinals.offsetOf(ordinal));
+                int length = Math.abs(readFully(prefix.clear(), position - 4).getInt(0));
+                if (record.capacity() < length) {
+                    record = ByteBuffer.allocate(Math.max(length, record.capacity() * 2));
+                }
+                readFully(record.clear().limit(length), position);
+                Indexed indexed = readIndexed(record.array(), length);
+                ordinalsById.put(indexed.id(), ordinal);
+                attributes.set(ordinal, indexed.category(), indexed.createdAt());
+            }
+            log.info("Indexed {} document ids in {} ms", ordinalsById.size(), System.currentTimeMillis() - startTime);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot rebuild IVF id index", e);
+        }
+    }
+
+    /**
+     * Fields of a metadata record needed by the id index and the attribute columns.
+     */
+    private record Indexed(String id, String category, long createdAt) {
+    }
+
+    private Indexed readIndexed(byte[] record, int length) throws IOException {
+        String id = null;
+        String category = null;
+        long createdAt = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(record, 0, length)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "id" -> id = parser.getText();
+                    case "category" -> category = parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getText();
+                    case "createdAt" -> createdAt = parser.currentToken() == JsonToken.VALUE_NULL
+                            ? 0 : parser.readValueAs(Instant.class).toEpochMilli();
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        if (id == null) {
+            throw new IOException("Metadata record without id");
+        }
+        return new Indexed(id, category, createdAt);
+    }
+
+    private static long createdAtMillis(VectorDocument document) {
+        return document.getCreatedAt() != null ? document.getCreatedAt().toEpochMilli() : 0;
+    }
+
+    /**
+     * Bounded min-heap keeping the {@code k} highest scores.
+     */
+    private static final class TopHits {
+        private final int[] ordinals;
+        private final float[] scores;
+        private int size;
+
+        TopHits(int k) {
+            this.ordinals = new int[k];
+            this.scores = new float[k];
+        }
+
+        boolean isFull() {
+            return size == ordinals.length;
+        }
+
+        void offer(int ordinal, float score) {
+            if (size < ordinals.length) {
+                int i = size++;
+                while (i > 0 && scores[(i - 1) >>> 1] > score) {
+                    int parent = (i - 1) >>> 1;
+                    ordinals[i] = ordinals[parent];
+                    scores[i] = scores[parent];
+                    i = parent;
+                }
+                ordinals[i] = ordinal;
+                scores[i] = score;
+            } else if (size > 0 && score > scores[0]) {
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && scores[child + 1] < scores[child]) {
+                        child++;
+                    }
+                    if (scores[child] >= score) {
+                        break;
+                    }
+                    ordinals[i] = ordinals[child];
+                    scores[i] = scores[child];
+                    i = child;
+                }
+                ordinals[i] = ordinal;
+                scores[i] = score;
+            }
+        }
+
+        int[] ordinalsDescending() {
+            Integer[] order = order();
+            int[] out = new int[size];
+            for (int i = 0; i < size; i++) {
+                out[i] = ordinals[order[i]];
+            }
+            return out;
+        }
+
+        float[] scoresDescending() {
+            Integer[] order = order();
+            float[] out = new float[size];
+            for (int i = 0; i < size; i++) {
+                out[i] = scores[order[i]];
+            }
+            return out;
+        }
+
+        private Integer[] order() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Float.compare(scores[b], scores[a]));
+            return order;
+        }
+    }
+}
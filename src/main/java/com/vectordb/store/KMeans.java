@@ -0,0 +1,88 @@
+package com.vectordb.store;
+
+import java.util.Random;
+
+/**
+ * Spherical k-means (Lloyd iterations on unit vectors, centroids re-normalized), used to
+ * train the coarse quantizer of the IVF store.
+ */
+final class KMeans {
+
+    private KMeans() {
+    }
+
+    /**
+     * Train {@code k} unit-length centroids on unit-length {@code vectors}.
+     * {@code k} must not exceed the number of vectors.
+     */
+    static float[][] train(float[][] vectors, int k, int iterations, long seed) {
+        int dimension = vectors[0].length;
+        Random random = new Random(seed);
+
+        float[][] centroids = new float[k][];
+        int[] order = shuffledIndexes(vectors.length, random);
+        for (int c = 0; c < k; c++) {
+            centroids[c] = vectors[order[c]].clone();
+        }
+
+        int[] assignment = new int[vectors.length];
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            boolean changed = false;
+            for (int i = 0; i < vectors.length; i++) {
+                int nearest = nearest(centroids, vectors[i]);
+                if (nearest != assignment[i]) {
+                    assignment[i] = nearest;
+                    changed = true;
+                }
+            }
+            if (iteration > 0 && !changed) {
+                break;
+            }
+
+            float[][] sums = new float[k][dimension];
+            int[] counts = new int[k];
+            for (int i = 0; i < vectors.length; i++) {
+                float[] sum = sums[assignment[i]];
+                float[] vector = vectors[i];
+                for (int d = 0; d < dimension; d++) {
+                    sum[d] += vector[d];
+                }
+                counts[assignment[i]]++;
+            }
+            for (int c = 0; c < k; c++) {
+                // Reseed empty clusters from a random vector so no list stays unused
+                centroids[c] = counts[c] == 0
+                        ? vectors[random.nextInt(vectors.length)].clone()
+                        : LocalSearchSupport.normalize(sums[c]);
+            }
+        }
+        return centroids;
+    }
+
+    static int nearest(float[][] centroids, float[] vector) {
+        int best = 0;
+        float bestScore = Float.NEGATIVE_INFINITY;
+        for (int c = 0; c < centroids.length; c++) {
+            float score = LocalSearchSupport.dot(vector, centroids[c], 0);
+            if (score > bestScore) {
+                bestScore = score;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    private static int[] shuffledIndexes(int n, Random random) {
+        int[] indexes = new int[n];
+        for (int i = 0; i < n; i++) {
+            indexes[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = indexes[i];
+            indexes[i] = indexes[j];
+            indexes[j] = tmp;
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,167 @@
+package com.vectordb.store;
+
+import com.vectordb.dto.SearchRequest;
+import com.vectordb.dto.SearchResponse;
+import com.vectordb.model.ContentType;
+import com.vectordb.model.SearchField;
+import com.vectordb.model.VectorDocument;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Search semantics shared by the in-process stores, kept identical to what
+ * the Vespa query issued by VespaService returns.
+ */
+final class LocalSearchSupport {
+
+    static final String DOCUMENT_ID_PREFIX = "id:vectordb:embedding::";
+
+    private LocalSearchSupport() {
+    }
+
+    /**
+     * Content type a hit must have, or null for no restriction. Without includeMedia only the
+     * preferred type (TEXT by default) is searched; with it every type is.
+     */
+    static ContentType contentTypeFilter(SearchRequest request) {
+        if (request.isIncludeMedia()) {
+            return null;
+        }
+        return request.getPreferredType() != null ? request.getPreferredType() : ContentType.TEXT;
+    }
+
+    static int limit(SearchRequest request) {
+        return request.getLimit() > 0 ? request.getLimit() : 5;
+    }
+
+    /**
+     * Hits the nearest neighbor search should produce before the limit is applied,
+     * as with Vespa's targetHits.
+     */
+    static int targetHits(SearchRequest request) {
+        return request.getTargetHits() != null ? request.getTargetHits() : limit(request);
+    }
+
+    /**
+     * Whether hits should carry their stored vector, as Vespa's {@code rerank} summary does
+     * for candidates the service re-ranks.
+     */
+    static boolean withEmbeddings(SearchRequest request) {
+        return Boolean.TRUE.equals(request.getRerank());
+    }
+
+    static boolean isApproximate(SearchRequest request) {
+        return request.getApproximate() == null || request.getApproximate();
+    }
+
+    /**
+     * The request's filters, matched the way the Vespa query matches them: a missing
+     * category is the empty string, createdFrom is inclusive and createdUntil exclusive.
+     */
+    static Filter filter(SearchRequest request) {
+        return new Filter(contentTypeFilter(request),
+                request.getCategories() != null && !request.getCategories().isEmpty()
+                        ? Set.copyOf(request.getCategories()) : null,
+                request.getCreatedFrom() != null ? request.getCreatedFrom().toEpochMilli() : Long.MIN_VALUE,
+                request.getCreatedUntil() != null ? request.getCreatedUntil().toEpochMilli() : Long.MAX_VALUE,
+                request.getIds() != null && !request.getIds().isEmpty() ? Set.copyOf(request.getIds()) : null);
+    }
+
+    /**
+     * Search filters; null sets and open range ends do not restrict.
+     */
+    record Filter(ContentType contentType, Set<String> categories, long createdFrom, long createdUntil,
+                  Set<String> ids) {
+
+        /**
+         * Whether anything beyond the content type, which the stores index separately, is filtered on.
+         */
+        boolean hasAttributeFilters() {
+            return categories != null || createdFrom != Long.MIN_VALUE || createdUntil != Long.MAX_VALUE
+                    || ids != null;
+        }
+
+        boolean matches(VectorDocument document) {
+            if (contentType != null && document.getContentType() != contentType) {
+                return false;
+            }
+            if (categories != null && !categories.contains(nullToEmpty(document.getCategory()))) {
+                return false;
+            }
+            if (createdFrom != Long.MIN_VALUE || createdUntil != Long.MAX_VALUE) {
+                long createdAt = document.getCreatedAt() != null ? document.getCreatedAt().toEpochMilli() : 0;
+                if (createdAt < createdFrom || createdAt >= createdUntil) {
+                    return false;
+                }
+            }
+            return ids == null || ids.contains(document.getId());
+        }
+    }
+
+    static float dot(float[] query, float[] vectors, int offset) {
+        float sum = 0;
+        for (int i = 0; i < query.length; i++) {
+            sum += query[i] * vectors[offset + i];
+        }
+        return sum;
+    }
+
+    /**
+     * Unit-length copy, so the dot product equals the angular similarity Vespa uses.
+     */
+    static float[] normalize(float[] vector) {
+        double sumSquares = 0;
+        for (float v : vector) {
+            sumSquares += v * v;
+        }
+        float[] normalized = vector.clone();
+        if (sumSquares > 0) {
+            float scale = (float) (1.0 / Math.sqrt(sumSquares));
+            for (int i = 0; i < normalized.length; i++) {
+                normalized[i] *= scale;
+            }
+        }
+        return normalized;
+    }
+
+    /**
+     * Vespa's closeness for the angular metric: 1 / (1 + angle).
+     */
+    static double closeness(float cosine) {
+        double clamped = Math.max(-1.0, Math.min(1.0, cosine));
+        return 1.0 / (1.0 + Math.acos(clamped));
+    }
+
+    static SearchResponse.SearchResult toResult(VectorDocument document, double score, List<SearchField> fields) {
+        boolean all = fields == null || fields.isEmpty();
+        return SearchResponse.SearchResult.builder()
+                .id(DOCUMENT_ID_PREFIX + document.getId())
+                .content(all || fields.contains(SearchField.CONTENT) ? document.getContent() : "")
+                .contentType(all || fields.contains(SearchField.CONTENT_TYPE) ? document.getContentType() : ContentType.TEXT)
+                .category(all || fields.contains(SearchField.CATEGORY) ? nullToEmpty(document.getCategory()) : "")
+                .description(all || fields.contains(SearchField.DESCRIPTION) ? nullToEmpty(document.getDescription()) : "")
+                .mediaUrl(all || fields.contains(SearchField.MEDIA_URL) ? nullToEmpty(document.getMediaUrl()) : "")
+                .score(score)
+                .build();
+    }
+
+    /**
+     * Copy of {@code document} without the embedding, for keeping metadata next to an index.
+     */
+    static VectorDocument metadataOf(VectorDocument document) {
+        return VectorDocument.builder()
+                .id(document.getId())
+                .content(document.getContent())
+                .contentType(document.getContentType())
+                .category(document.getCategory())
+                .description(document.getDescription())
+                .mediaUrl(document.getMediaUrl())
+                .createdAt(document.getCreatedAt())
+                .build();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
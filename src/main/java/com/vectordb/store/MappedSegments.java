@@ -0,0 +1,116 @@
+package com.vectordb.store;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Append-only sequence of fixed-size records spread over memory-mapped segment files
+ * ({@code <prefix>-00000.seg}, {@code <prefix>-00001.seg}, ...). Each segment is mapped
+ * once at full capacity and starts with an 8-byte header holding its record count, so
+ * reopening only re-maps the files. Appends are serialized; reads use absolute accessors
+ * on the shared buffers and need no locking.
+ * <p>
+ * Appends are plain stores into the mapping. A process crash loses nothing, since the OS
+ * still holds the dirty pages, but the OS writes them back in no particular order: after
+ * an OS crash a header count may cover records that never reached disk, and one sequence
+ * may be ahead of another written after it. Only {@link #force()}, which owners call on
+ * shutdown, makes the records durable.
+ */
+final class MappedSegments {
+
+    static final int HEADER_BYTES = 8;
+
+    private final Path directory;
+    private final String prefix;
+    private final int recordBytes;
+    private final int recordsPerSegment;
+    private final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+    private volatile int size;
+
+    MappedSegments(Path directory, String prefix, int recordBytes, int recordsPerSegment) throws IOException {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.recordBytes = recordBytes;
+        this.recordsPerSegment = recordsPerSegment;
+
+        int total = 0;
+        for (int i = 0; Files.exists(segmentPath(i)); i++) {
+            MappedByteBuffer segment = map(segmentPath(i));
+            segments.add(segment);
+            total += segment.getInt(0);
+        }
+        this.size = total;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int recordsPerSegment() {
+        return recordsPerSegment;
+    }
+
+    MappedByteBuffer segment(int index) {
+        return segments.get(index);
+    }
+
+    MappedByteBuffer segmentOf(int slot) {
+        return segments.get(slot / recordsPerSegment);
+    }
+
+    /**
+     * Byte offset of {@code slot}'s record within its segment.
+     */
+    int offsetOf(int slot) {
+        return HEADER_BYTES + (slot % recordsPerSegment) * recordBytes;
+    }
+
+    /**
+     * Append one record; {@code writer} receives the segment and the record's offset.
+     * Returns the record's slot.
+     */
+    synchronized int append(ObjIntConsumer<MappedByteBuffer> writer) throws IOException {
+        int slot = size;
+        int index = slot / recordsPerSegment;
+        if (index == segments.size()) {
+            segments.add(map(segmentPath(index)));
+        }
+        MappedByteBuffer segment = segments.get(index);
+        int local = slot % recordsPerSegment;
+        writer.accept(segment, HEADER_BYTES + local * recordBytes);
+        segment.putInt(0, local + 1);
+        size = slot + 1;
+        return slot;
+    }
+
+    /**
+     * Flush dirty pages to disk.
+     */
+    void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    private MappedByteBuffer map(Path path) throws IOException {
+        long capacity = HEADER_BYTES + (long) recordsPerSegment * recordBytes;
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+
+    private Path segmentPath(int index) {
+        return directory.resolve(String.format("%s-%05d.seg", prefix, index));
+    }
+}
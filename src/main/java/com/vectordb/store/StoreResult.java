@@ -0,0 +1,35 @@
+package com.vectordb.store;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of a single document write.
+ */
+@Getter
+@AllArgsConstructor
+public class StoreResult {
+    private final String documentId;
+    private final boolean success;
+    private final String message;
+    // The store could not take the write right now; the same write may succeed later
+    private final boolean retryable;
+    // An update or delete addressed a document the store does not have
+    private final boolean notFound;
+
+    public static StoreResult success(String documentId) {
+        return new StoreResult(documentId, true, null, false, false);
+    }
+
+    public static StoreResult failure(String documentId, String message) {
+        return new StoreResult(documentId, false, message, false, false);
+    }
+
+    public static StoreResult notFound(String documentId) {
+        return new StoreResult(documentId, false, "Document not found", false, true);
+    }
+
+    public static StoreResult unavailable(String documentId, String message) {
+        return new StoreResult(documentId, false, message, true, false);
+    }
+}
@@ -0,0 +1,19 @@
+package com.vectordb.store;
+
+import java.util.Map;
+
+public class StoreStatus {
+    private boolean connected;
+    private String status;
+    private String message;
+    private Map<String, Object> details = Map.of();
+
+    public boolean isConnected() { return connected; }
+    public void setConnected(boolean connected) { this.connected = connected; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+    public Map<String, Object> getDetails() { return details; }
+    public void setDetails(Map<String, Object> details) { this.details = details; }
+}
@@ -0,0 +1,20 @@
+package com.vectordb.store;
+
+import lombok.Getter;
+
+/**
+ * Thrown without calling the store backend when its circuit breaker is open or its
+ * concurrency limit is exhausted. Mapped to HTTP 503.
+ */
+@Getter
+public class StoreUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterMs;
+
+    public StoreUnavailableException(String message, long retryAfterMs) {
+        super(message);
+        this.retryAfterMs = retryAfterMs;
+    }
+}
@@ -0,0 +1,52 @@
+package com.vectordb.store;
+
+import com.vectordb.dto.SearchRequest;
+import com.vectordb.dto.SearchResponse;
+import com.vectordb.model.MetadataUpdate;
+import com.vectordb.model.VectorDocument;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Storage and nearest-neighbor search backend for embedded documents.
+ * The active implementation is selected with the {@code store.type} property.
+ */
+public interface VectorStore {
+
+    /**
+     * Store a document, blocking until it is durable in the backend.
+     */
+    boolean storeDocument(VectorDocument document);
+
+    /**
+     * Submit a document for storage. May block while the backend's in-flight limit is reached;
+     * the future never fails, errors are reported in the result.
+     */
+    CompletableFuture<StoreResult> storeDocumentAsync(VectorDocument document);
+
+    /**
+     * Nearest-neighbor search for {@code queryEmbedding}, honoring the content type filter,
+     * limit and field projection of {@code searchRequest}.
+     */
+    CompletableFuture<SearchResponse> searchAsync(float[] queryEmbedding, SearchRequest searchRequest);
+
+    /**
+     * Blocking variant of {@link #searchAsync}.
+     */
+    SearchResponse search(float[] queryEmbedding, SearchRequest searchRequest);
+
+    /**
+     * Change metadata fields of a stored document without rewriting or re-indexing its vector.
+     * The future never fails; a missing document gives {@link StoreResult#notFound}.
+     */
+    CompletableFuture<StoreResult> updateFields(String documentId, MetadataUpdate update);
+
+    boolean deleteDocument(String documentId);
+
+    StoreStatus getStatus();
+
+    /**
+     * Short name used as the health component key.
+     */
+    String getName();
+}
@@ -0,0 +1,62 @@
+package com.vectordb.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AimdLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    void permitsStopAtTheLimit() throws Exception {
+        AimdLimiter limiter = new AimdLimiter(2, 1, 10, 0.5, 100);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.acquire(TimeUnit.MILLISECONDS.toNanos(10))).isFalse();
+
+        limiter.release(FAST, true);
+        assertThat(limiter.acquire(TimeUnit.MILLISECONDS.toNanos(10))).isTrue();
+    }
+
+    @Test
+    void limitGrowsByOneWhileUsed() {
+        AimdLimiter limiter = new AimdLimiter(4, 1, 5, 0.5, 100);
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire();
+        }
+
+        limiter.release(FAST, true);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+        limiter.release(FAST, true);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    void limitDoesNotGrowWhenMostlyIdle() {
+        AimdLimiter limiter = new AimdLimiter(10, 1, 20, 0.5, 100);
+        limiter.tryAcquire();
+
+        limiter.release(FAST, true);
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void failuresAndSlowCallsHalveTheLimitDownToTheMinimum() {
+        AimdLimiter limiter = new AimdLimiter(8, 3, 20, 0.5, 100);
+
+        limiter.tryAcquire();
+        limiter.release(FAST, false);
+        assertThat(limiter.getLimit()).isEqualTo(4);
+
+        limiter.tryAcquire();
+        limiter.release(SLOW, true);
+        assertThat(limiter.getLimit()).isEqualTo(3);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+}
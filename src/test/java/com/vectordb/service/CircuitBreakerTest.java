@@ -0,0 +1,92 @@
+package com.vectordb.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    @Test
+    void opensOnceTheFailureRateIsReached() {
+        CircuitBreaker breaker = new CircuitBreaker(50, 4, 4, 60_000, 1);
+
+        record(breaker, true, false, true);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        record(breaker, false);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.retryAfterMs()).isPositive();
+    }
+
+    @Test
+    void staysClosedBelowTheMinimumCalls() {
+        CircuitBreaker breaker = new CircuitBreaker(50, 10, 5, 60_000, 1);
+
+        record(breaker, false, false, false, false);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void oldOutcomesLeaveTheWindow() {
+        CircuitBreaker breaker = new CircuitBreaker(50, 4, 4, 60_000, 1);
+
+        record(breaker, false, true, true, true, true, false);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void successfulProbesCloseTheBreaker() throws Exception {
+        CircuitBreaker breaker = openBreaker(2);
+        Thread.sleep(20);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        breaker.onResult(true);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        breaker.onResult(true);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void failedProbeReopensTheBreaker() throws Exception {
+        CircuitBreaker breaker = openBreaker(1);
+        Thread.sleep(20);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onResult(false);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void cancelledProbeFreesItsSlot() throws Exception {
+        CircuitBreaker breaker = openBreaker(1);
+        Thread.sleep(20);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+        breaker.cancel();
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    private static CircuitBreaker openBreaker(int halfOpenCalls) {
+        CircuitBreaker breaker = new CircuitBreaker(50, 2, 2, 10, halfOpenCalls);
+        record(breaker, false, false);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        return breaker;
+    }
+
+    private static void record(CircuitBreaker breaker, boolean... outcomes) {
+        for (boolean success : outcomes) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onResult(success);
+        }
+    }
+}
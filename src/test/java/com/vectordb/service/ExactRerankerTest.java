@@ -0,0 +1,63 @@
+package com.vectordb.service;
+
+import com.vectordb.dto.SearchResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExactRerankerTest {
+
+    @Test
+    void byCosineMatchesAFullSort() {
+        Random random = new Random(3);
+        for (int round = 0; round < 200; round++) {
+            float[] cosines = new float[random.nextInt(50)];
+            for (int i = 0; i < cosines.length; i++) {
+                // Few distinct values, so ties are common
+                cosines[i] = random.nextInt(8) / 8f;
+            }
+            int limit = random.nextInt(cosines.length + 1);
+            int[] expected = IntStream.range(0, cosines.length).boxed()
+                    .sorted(Comparator.comparingDouble(i -> -cosines[i]))
+                    .limit(limit)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            assertThat(ExactReranker.byCosine(cosines, limit)).containsExactly(expected);
+        }
+    }
+
+    @Test
+    void candidatesAreReorderedByTheirEmbeddings() {
+        float[] query = {1, 0};
+        List<SearchResponse.SearchResult> candidates = new ArrayList<>();
+        candidates.add(hit("far", new float[]{0, 1}));
+        candidates.add(hit("near", new float[]{1, 0.1f}));
+        candidates.add(hit("middle", new float[]{1, 1}));
+
+        List<SearchResponse.SearchResult> hits = ExactReranker.rerank(query, candidates, 2, 1.0);
+
+        assertThat(hits).extracting(SearchResponse.SearchResult::getId).containsExactly("near", "middle");
+        assertThat(hits).allSatisfy(hit -> assertThat(hit.getEmbedding()).isNull());
+        assertThat(hits.get(0).getScore()).isGreaterThan(hits.get(1).getScore());
+    }
+
+    @Test
+    void candidatesWithoutEmbeddingsKeepStoreOrder() {
+        List<SearchResponse.SearchResult> candidates = new ArrayList<>();
+        candidates.add(hit("first", new float[]{0, 1}));
+        candidates.add(hit("second", null));
+
+        assertThat(ExactReranker.rerank(new float[]{1, 0}, candidates, 2, 1.0))
+                .extracting(SearchResponse.SearchResult::getId).containsExactly("first", "second");
+    }
+
+    private static SearchResponse.SearchResult hit(String id, float[] embedding) {
+        return SearchResponse.SearchResult.builder().id(id).score(0.5).embedding(embedding).build();
+    }
+}
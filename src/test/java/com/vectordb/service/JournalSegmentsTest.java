@@ -0,0 +1,133 @@
+package com.vectordb.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JournalSegmentsTest {
+
+    private static final int SEGMENT_BYTES = 256;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void tornTailIsClearedOnReopen() throws Exception {
+        JournalSegments journal = new JournalSegments(directory, SEGMENT_BYTES, true);
+        journal.append(payload("a"));
+        JournalSegments.Position end = journal.append(payload("b"));
+
+        // A crash after the length was written but before the payload and checksum were
+        try (FileChannel channel = FileChannel.open(directory.resolve("journal-0000000000.seg"),
+                StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).putInt(0, 40),
+                    end.offset());
+        }
+
+        JournalSegments reopened = new JournalSegments(directory, SEGMENT_BYTES, true);
+        assertThat(reopened.end()).isEqualTo(end);
+        reopened.append(payload("c"));
+
+        assertThat(payloads(new JournalSegments(directory, SEGMENT_BYTES, true))).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void recordsThatDoNotFitRollOverToTheNextSegment() throws Exception {
+        JournalSegments journal = new JournalSegments(directory, SEGMENT_BYTES, false);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String value = "record-%02d-".formatted(i) + "x".repeat(40);
+            expected.add(value);
+            journal.append(payload(value));
+        }
+
+        assertThat(journal.end().segment()).isEqualTo(2);
+        assertThat(segmentFiles()).hasSize(3);
+        assertThat(payloads(journal)).containsExactlyElementsOf(expected);
+        assertThat(payloads(new JournalSegments(directory, SEGMENT_BYTES, false))).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void acknowledgedSegmentsAreDeleted() throws Exception {
+        JournalSegments journal = new JournalSegments(directory, SEGMENT_BYTES, false);
+        List<JournalSegments.Position> positions = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            positions.add(journal.append(payload("record-%02d-".formatted(i) + "x".repeat(40))));
+        }
+
+        journal.acknowledge(positions.get(8));
+        assertThat(segmentFiles()).hasSize(1);
+
+        JournalSegments reopened = new JournalSegments(directory, SEGMENT_BYTES, false);
+        assertThat(reopened.acknowledged()).isEqualTo(positions.get(8));
+        assertThat(reopened.count(reopened.acknowledged())).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentAppendsAreAllDurable() throws Exception {
+        JournalSegments journal = new JournalSegments(directory, 64 * 1024, true);
+        int threads = 8;
+        int perThread = 200;
+        Set<JournalSegments.Position> positions = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        JournalSegments.Position position = journal.append(payload(thread + "-" + i));
+                        assertThat(journal.end()).isGreaterThanOrEqualTo(position);
+                        positions.add(position);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(positions).hasSize(threads * perThread);
+        JournalSegments reopened = new JournalSegments(directory, 64 * 1024, true);
+        assertThat(reopened.count(reopened.acknowledged())).isEqualTo(threads * perThread);
+    }
+
+    private List<String> payloads(JournalSegments journal) {
+        List<String> payloads = new ArrayList<>();
+        for (JournalSegments.Entry entry : journal.read(journal.acknowledged(), Integer.MAX_VALUE)) {
+            payloads.add(new String(entry.payload(), StandardCharsets.UTF_8));
+        }
+        return payloads;
+    }
+
+    private List<Path> segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".seg")).toList();
+        }
+    }
+
+    private static byte[] payload(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,108 @@
+package com.vectordb.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MicroBatcherTest {
+
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    @Test
+    void fullBatchIsFlushedWithoutWaiting() throws Exception {
+        try (MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test", 4, Duration.ofSeconds(30), 16,
+                List.of(doubling()))) {
+            List<CompletableFuture<Integer>> results = submitAll(batcher, 8);
+
+            CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+            assertThat(results).extracting(CompletableFuture::join).containsExactly(0, 2, 4, 6, 8, 10, 12, 14);
+            assertThat(batchSizes).containsExactly(4, 4);
+        }
+    }
+
+    @Test
+    void partialBatchIsFlushedAfterMaxWait() throws Exception {
+        try (MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test", 100, Duration.ofMillis(50), 16,
+                List.of(doubling()))) {
+            long start = System.nanoTime();
+            List<CompletableFuture<Integer>> results = submitAll(batcher, 3);
+
+            CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(50);
+            assertThat(results).extracting(CompletableFuture::join).containsExactly(0, 2, 4);
+            assertThat(batchSizes).containsExactly(3);
+        }
+    }
+
+    @Test
+    void failedBatchFailsEveryItem() {
+        Function<List<Integer>, List<Integer>> failing = inputs -> {
+            throw new IllegalStateException("model unavailable");
+        };
+        try (MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test", 2, Duration.ofSeconds(30), 16,
+                List.of(failing))) {
+            List<CompletableFuture<Integer>> results = submitAll(batcher, 2);
+
+            for (CompletableFuture<Integer> result : results) {
+                assertThat(result).failsWithin(5, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    @Test
+    void errorInHandlerFailsTheBatchAndKeepsTheWorker() throws Exception {
+        Function<List<Integer>, List<Integer>> doubling = doubling();
+        Function<List<Integer>, List<Integer>> failingOnce = inputs -> {
+            if (batchSizes.isEmpty()) {
+                batchSizes.add(0);
+                throw new NoClassDefFoundError("ai/djl/pytorch/jni/JniUtils");
+            }
+            return doubling.apply(inputs);
+        };
+        try (MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test", 2, Duration.ofSeconds(30), 16,
+                List.of(failingOnce))) {
+            List<CompletableFuture<Integer>> failed = submitAll(batcher, 2);
+            for (CompletableFuture<Integer> result : failed) {
+                assertThat(result).failsWithin(5, TimeUnit.SECONDS);
+            }
+
+            List<CompletableFuture<Integer>> results = submitAll(batcher, 2);
+            CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+            assertThat(results).extracting(CompletableFuture::join).containsExactly(0, 2);
+        }
+    }
+
+    @Test
+    void submitAfterCloseFails() {
+        MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test", 2, Duration.ofMillis(10), 16,
+                List.of(doubling()));
+        batcher.close();
+
+        assertThat(batcher.submit(1)).isCompletedExceptionally();
+    }
+
+    private Function<List<Integer>, List<Integer>> doubling() {
+        return inputs -> {
+            batchSizes.add(inputs.size());
+            return inputs.stream().map(value -> value * 2).toList();
+        };
+    }
+
+    private static List<CompletableFuture<Integer>> submitAll(MicroBatcher<Integer, Integer> batcher, int count) {
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            results.add(batcher.submit(i));
+        }
+        return results;
+    }
+}
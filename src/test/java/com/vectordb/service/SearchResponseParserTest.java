@@ -0,0 +1,104 @@
+package com.vectordb.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.vectordb.dto.SearchResponse;
+import com.vectordb.model.ContentType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SearchResponseParserTest {
+
+    private final SearchResponseParser parser = new SearchResponseParser(new JsonFactory());
+
+    @Test
+    void capturedResponseIsParsed() throws IOException {
+        SearchResponse response;
+        try (InputStream body = capturedResponse()) {
+            response = parser.parse(body);
+        }
+
+        assertThat(response.getTotalHits()).isEqualTo(42);
+        assertThat(response.getResults()).hasSize(3);
+
+        SearchResponse.SearchResult first = response.getResults().get(0);
+        assertThat(first.getId()).isEqualTo("id:vectordb:embedding::1b7e2c9a-4f3d-4d8e-9a51-6c0f2b8e7d10");
+        assertThat(first.getScore()).isEqualTo(0.5823127040413862);
+        assertThat(first.getContent()).isEqualTo("Paris is the City of Light known for the Eiffel Tower");
+        assertThat(first.getContentType()).isEqualTo(ContentType.TEXT);
+        assertThat(first.getCategory()).isEqualTo("cities");
+        assertThat(first.getDescription()).isEqualTo("Paris landmarks");
+        assertThat(first.getEmbedding()).isNull();
+
+        SearchResponse.SearchResult second = response.getResults().get(1);
+        assertThat(second.getContentType()).isEqualTo(ContentType.IMAGE);
+        assertThat(second.getMediaUrl()).isEqualTo("https://example.com/golden-gate.jpg");
+        assertThat(second.getDescription()).isEmpty();
+
+        // Lean summary hits only have an internal index: id; the document id comes from doc_id
+        SearchResponse.SearchResult third = response.getResults().get(2);
+        assertThat(third.getId()).isEqualTo("id:vectordb:embedding::5f2e9b7c-0d4a-4e1b-8c63-9a7f1d2e4b80");
+        assertThat(third.getContent()).isEqualTo("Kyoto temples in autumn");
+    }
+
+    @Test
+    void embeddingsAreReadInBothTensorForms() throws IOException {
+        SearchResponse response;
+        try (InputStream body = capturedResponse()) {
+            response = parser.parse(body, true);
+        }
+
+        assertThat(response.getResults().get(0).getEmbedding()).containsExactly(0.5f, -0.25f, 0.125f, 1.0E-3f);
+        assertThat(response.getResults().get(1).getEmbedding()).containsExactly(0f, 1f, -2.5f, 3.75f);
+    }
+
+    @Test
+    void responseWithoutHitsHasNoResults() throws IOException {
+        SearchResponse response = parser.parse(body("""
+                {"root": {"id": "toplevel", "relevance": 1.0, "fields": {"totalCount": 0},
+                          "coverage": {"coverage": 100, "documents": 1200, "full": true}}}
+                """));
+
+        assertThat(response.getResults()).isEmpty();
+        assertThat(response.getTotalHits()).isZero();
+    }
+
+    @Test
+    void unknownContentTypeFallsBackToText() throws IOException {
+        SearchResponse response = parser.parse(body("""
+                {"root": {"fields": {"totalCount": 3}, "children": [
+                    {"id": "a", "relevance": 0.9, "fields": {"content": "a", "content_type": "AUDIO"}},
+                    {"id": "b", "relevance": 0.8, "fields": {"content": "b", "content_type": "image"}},
+                    {"id": "c", "relevance": 0.7, "fields": {"content": "c", "content_type": null}}]}}
+                """));
+
+        assertThat(response.getResults())
+                .extracting(SearchResponse.SearchResult::getContentType)
+                .containsExactly(ContentType.TEXT, ContentType.IMAGE, ContentType.TEXT);
+    }
+
+    @Test
+    void truncatedResponseFails() throws IOException {
+        byte[] captured;
+        try (InputStream body = capturedResponse()) {
+            captured = body.readAllBytes();
+        }
+        InputStream truncated = new ByteArrayInputStream(captured, 0, captured.length / 2);
+
+        assertThatThrownBy(() -> parser.parse(truncated)).isInstanceOf(IOException.class);
+    }
+
+    private InputStream capturedResponse() {
+        return getClass().getResourceAsStream("/vespa/search-response.json");
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
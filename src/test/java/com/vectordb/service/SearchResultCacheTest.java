@@ -0,0 +1,108 @@
+package com.vectordb.service;
+
+import com.vectordb.config.SearchConfig;
+import com.vectordb.dto.SearchRequest;
+import com.vectordb.dto.SearchResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchResultCacheTest {
+
+    private final AtomicInteger searches = new AtomicInteger();
+    private SearchResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        SearchConfig searchConfig = new SearchConfig();
+        searchConfig.setCacheEnabled(true);
+        cache = new SearchResultCache(searchConfig, new SimpleMeterRegistry());
+        cache.init();
+    }
+
+    @Test
+    void repeatedRequestIsServedFromTheCache() {
+        SearchResponse first = cache.get(request("apple"), search()).join();
+        SearchResponse second = cache.get(request("apple"), search()).join();
+
+        assertThat(second).isSameAs(first);
+        assertThat(searches).hasValue(1);
+        cache.get(request("pear"), search()).join();
+        assertThat(searches).hasValue(2);
+    }
+
+    @Test
+    void invalidateMakesEarlierResultsUnreachable() {
+        SearchResponse before = cache.get(request("apple"), search()).join();
+
+        cache.invalidate();
+        SearchResponse after = cache.get(request("apple"), search()).join();
+
+        assertThat(after).isNotSameAs(before);
+        assertThat(searches).hasValue(2);
+        assertThat(cache.get(request("apple"), search()).join()).isSameAs(after);
+    }
+
+    @Test
+    void searchInFlightDuringAWriteIsNotServedAfterIt() {
+        CompletableFuture<SearchResponse> pending = new CompletableFuture<>();
+        CompletableFuture<SearchResponse> inFlight = cache.get(request("apple"), () -> {
+            searches.incrementAndGet();
+            return pending;
+        });
+
+        cache.invalidate();
+        pending.complete(response());
+        cache.get(request("apple"), search()).join();
+
+        assertThat(inFlight.join()).isSameAs(pending.join());
+        assertThat(searches).hasValue(2);
+    }
+
+    @Test
+    void concurrentIdenticalMissesShareOneSearch() {
+        CompletableFuture<SearchResponse> pending = new CompletableFuture<>();
+        Supplier<CompletableFuture<SearchResponse>> slow = () -> {
+            searches.incrementAndGet();
+            return pending;
+        };
+
+        CompletableFuture<SearchResponse> first = cache.get(request("apple"), slow);
+        CompletableFuture<SearchResponse> second = cache.get(request("apple"), slow);
+
+        assertThat(second).isSameAs(first);
+        assertThat(searches).hasValue(1);
+    }
+
+    @Test
+    void failedSearchesAreNotCached() {
+        CompletableFuture<SearchResponse> failed = cache.get(request("apple"),
+                () -> CompletableFuture.failedFuture(new IllegalStateException("unavailable")));
+        assertThat(failed).isCompletedExceptionally();
+
+        cache.get(request("apple"), search()).join();
+        assertThat(searches).hasValue(1);
+    }
+
+    private Supplier<CompletableFuture<SearchResponse>> search() {
+        return () -> {
+            searches.incrementAndGet();
+            return CompletableFuture.completedFuture(response());
+        };
+    }
+
+    private static SearchResponse response() {
+        return SearchResponse.builder().results(List.of()).build();
+    }
+
+    private static SearchRequest request(String query) {
+        return SearchRequest.builder().query(query).build();
+    }
+}
@@ -0,0 +1,80 @@
+package com.vectordb.service;
+
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.impl.BasicEntityDetails;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamingResponseConsumerTest {
+
+    private static final String HIT = """
+            {"root": {"children": [{"id": "a", "relevance": 0.9, "fields": {"content_type": "bogus"}}]}}
+            """;
+
+    @Test
+    void parserFailureCompletesWithParseError() throws Exception {
+        StreamingResponseConsumer<String> consumer = new StreamingResponseConsumer<>(body -> {
+            String json = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+            throw new IllegalArgumentException("No content type for hit in " + json.length() + " bytes");
+        }, 64 * 1024);
+
+        StreamingResponseConsumer.Response<String> response = consume(consumer, HIT).get(5, TimeUnit.SECONDS);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).isNull();
+        assertThat(response.parseError()).isInstanceOf(IOException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void parsedBodyCompletesTheExchange() throws Exception {
+        StreamingResponseConsumer<Integer> consumer = new StreamingResponseConsumer<>(
+                body -> body.readAllBytes().length, 64 * 1024);
+
+        StreamingResponseConsumer.Response<Integer> response = consume(consumer, HIT).get(5, TimeUnit.SECONDS);
+
+        assertThat(response.parseError()).isNull();
+        assertThat(response.body()).isEqualTo(HIT.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static <T> CompletableFuture<StreamingResponseConsumer.Response<T>> consume(
+            StreamingResponseConsumer<T> consumer, String json) throws IOException {
+        CompletableFuture<StreamingResponseConsumer.Response<T>> result = new CompletableFuture<>();
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        consumer.consumeResponse(new BasicHttpResponse(200),
+                new BasicEntityDetails(bytes.length, ContentType.APPLICATION_JSON), null, callback(result));
+        consumer.updateCapacity(increment -> { });
+        consumer.consume(ByteBuffer.wrap(bytes));
+        consumer.streamEnd(List.of());
+        return result;
+    }
+
+    private static <T> FutureCallback<T> callback(CompletableFuture<T> result) {
+        return new FutureCallback<>() {
+            @Override
+            public void completed(T value) {
+                result.complete(value);
+            }
+
+            @Override
+            public void failed(Exception cause) {
+                result.completeExceptionally(cause);
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+        };
+    }
+}
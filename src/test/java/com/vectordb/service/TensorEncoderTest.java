@@ -0,0 +1,83 @@
+package com.vectordb.service;
+
+import com.vectordb.model.TensorCellType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TensorEncoderTest {
+
+    @Test
+    void floatCellsRoundTripExactly() {
+        float[] values = randomValues(384);
+        values[0] = -0.0f;
+        values[1] = Float.MIN_VALUE;
+
+        String hex = TensorEncoder.toHex(values, TensorCellType.FLOAT);
+
+        assertThat(hex).hasSize(384 * 8);
+        float[] decoded = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            decoded[i] = Float.intBitsToFloat(Integer.parseUnsignedInt(hex.substring(8 * i, 8 * i + 8), 16));
+        }
+        assertThat(decoded).containsExactly(values);
+    }
+
+    @Test
+    void bfloat16CellsRoundToTheNearestEven() {
+        assertThat(TensorEncoder.toHex(new float[]{1.0f, -2.5f}, TensorCellType.BFLOAT16)).isEqualTo("3F80C020");
+        // Exactly halfway between 0x3F80 and 0x3F81: ties go to the even 0x3F80
+        assertThat(TensorEncoder.toBfloat16(Float.intBitsToFloat(0x3F808000))).isEqualTo(0x3F80);
+        // Halfway between 0x3F81 and 0x3F82: ties go to the even 0x3F82
+        assertThat(TensorEncoder.toBfloat16(Float.intBitsToFloat(0x3F818000))).isEqualTo(0x3F82);
+        assertThat(TensorEncoder.toBfloat16(Float.intBitsToFloat(0x3F808001))).isEqualTo(0x3F81);
+    }
+
+    @Test
+    void bfloat16CellsRoundTripWithinHalfAnUlp() {
+        float[] values = randomValues(384);
+
+        String hex = TensorEncoder.toHex(values, TensorCellType.BFLOAT16);
+
+        assertThat(hex).hasSize(384 * 4);
+        for (int i = 0; i < values.length; i++) {
+            float decoded = Float.intBitsToFloat(Integer.parseInt(hex.substring(4 * i, 4 * i + 4), 16) << 16);
+            // 8 significant bits: the rounding error is at most half of 2^-7 relative
+            assertThat(Math.abs(decoded - values[i])).isLessThanOrEqualTo(Math.abs(values[i]) / 256);
+        }
+    }
+
+    @Test
+    void int8CellsAreRoundedClampedAndTwosComplement() {
+        assertThat(TensorEncoder.toHex(new float[]{0f, 1.4f, -1.6f, 127f, 300f, -128f, -300f}, TensorCellType.INT8))
+                .isEqualTo("0001FE7F7F8080");
+        assertThat(TensorEncoder.toHex(new byte[]{0, 1, -2, Byte.MAX_VALUE, Byte.MIN_VALUE, -1}))
+                .isEqualTo("0001FE7F80FF");
+
+        byte[] values = new byte[48];
+        new Random(5).nextBytes(values);
+        String hex = TensorEncoder.toHex(values);
+        for (int i = 0; i < values.length; i++) {
+            assertThat((byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16)).isEqualTo(values[i]);
+        }
+    }
+
+    @Test
+    void queryLiteralsDeclareTypeAndSize() {
+        assertThat(TensorEncoder.toQueryLiteral(new float[]{1.0f, -2.5f}, TensorCellType.BFLOAT16))
+                .isEqualTo("tensor<bfloat16>(x[2]):3F80C020");
+        assertThat(TensorEncoder.toQueryLiteral(new byte[]{127, -128}))
+                .isEqualTo("tensor<int8>(x[2]):7F80");
+    }
+
+    private static float[] randomValues(int size) {
+        Random random = new Random(9);
+        float[] values = new float[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = (float) random.nextGaussian() * 0.1f;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,113 @@
+package com.vectordb.service;
+
+import com.vectordb.config.IngestConfig;
+import com.vectordb.config.SearchConfig;
+import com.vectordb.dto.EmbeddingRequest;
+import com.vectordb.dto.EmbeddingResponse;
+import com.vectordb.dto.SearchRequest;
+import com.vectordb.dto.SearchResponse;
+import com.vectordb.dto.UpdateRequest;
+import com.vectordb.model.ContentType;
+import com.vectordb.model.MetadataUpdate;
+import com.vectordb.model.SearchMode;
+import com.vectordb.model.VectorDocument;
+import com.vectordb.store.StoreResult;
+import com.vectordb.store.VectorStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VectorServiceTest {
+
+    private final EmbeddingService embeddingService = mock(EmbeddingService.class);
+    private final VectorStore vectorStore = mock(VectorStore.class);
+    private final SearchResultCache searchResultCache = mock(SearchResultCache.class);
+
+    private VectorService vectorService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        IngestConfig ingestConfig = new IngestConfig();
+        ingestConfig.setContentAddressedIds(true);
+        RecentDocumentIds recentDocumentIds = new RecentDocumentIds(ingestConfig, new SimpleMeterRegistry());
+        recentDocumentIds.init();
+
+        when(embeddingService.contentId(any(), anyString()))
+                .thenAnswer(invocation -> EmbeddingCache.contentHash(invocation.getArgument(0), invocation.getArgument(1)));
+        when(embeddingService.generateTextEmbedding(anyString())).thenReturn(new float[]{1, 0, 0});
+        when(vectorStore.storeDocument(any())).thenReturn(true);
+
+        vectorService = new VectorService(embeddingService, vectorStore, searchResultCache,
+                new SearchConfig(), new VectorMetrics(new SimpleMeterRegistry()),
+                mock(ObjectProvider.class), ingestConfig, recentDocumentIds);
+    }
+
+    @Test
+    void resubmissionAfterUpdateIsStoredAgain() {
+        EmbeddingRequest original = EmbeddingRequest.builder()
+                .content("a red apple").contentType(ContentType.TEXT).category("A").build();
+
+        EmbeddingResponse stored = vectorService.storeEmbedding(original);
+        assertThat(stored.isSuccess()).isTrue();
+        assertThat(vectorService.storeEmbedding(original).getMessage()).isEqualTo("Document already stored");
+
+        when(vectorStore.updateFields(anyString(), any(MetadataUpdate.class)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(
+                        StoreResult.success(invocation.getArgument(0))));
+        vectorService.updateFields(stored.getId(), UpdateRequest.builder().category("B").build()).join();
+
+        EmbeddingResponse restored = vectorService.storeEmbedding(original);
+        assertThat(restored.getMessage()).isEqualTo("Document stored successfully");
+
+        ArgumentCaptor<VectorDocument> documents = ArgumentCaptor.forClass(VectorDocument.class);
+        verify(vectorStore, times(2)).storeDocument(documents.capture());
+        assertThat(documents.getValue().getCategory()).isEqualTo("A");
+    }
+
+    @Test
+    void updateOfMissingDocumentForgetsIt() {
+        EmbeddingRequest original = EmbeddingRequest.builder()
+                .content("a green pear").contentType(ContentType.TEXT).category("A").build();
+        EmbeddingResponse stored = vectorService.storeEmbedding(original);
+
+        when(vectorStore.updateFields(anyString(), any(MetadataUpdate.class)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(
+                        StoreResult.notFound(invocation.getArgument(0))));
+        vectorService.updateFieldsBatch(List.of(
+                UpdateRequest.builder().id(stored.getId()).category("B").build()));
+
+        assertThat(vectorService.storeEmbedding(original).getMessage()).isEqualTo("Document stored successfully");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void hybridSearchDoesNotAskTheStoreForEmbeddings() {
+        when(searchResultCache.get(any(), any()))
+                .thenAnswer(invocation -> ((Supplier<CompletableFuture<SearchResponse>>) invocation.getArgument(1)).get());
+        when(vectorStore.searchAsync(any(), any())).thenReturn(CompletableFuture.completedFuture(
+                SearchResponse.builder().results(List.of()).totalHits(0).build()));
+
+        vectorService.searchSimilar(SearchRequest.builder()
+                .query("apples").mode(SearchMode.HYBRID).rerank(true).limit(5).build());
+
+        ArgumentCaptor<SearchRequest> storeRequest = ArgumentCaptor.forClass(SearchRequest.class);
+        verify(vectorStore).searchAsync(any(), storeRequest.capture());
+        assertThat(storeRequest.getValue().getRerank()).isNull();
+        assertThat(storeRequest.getValue().getLimit()).isEqualTo(5);
+    }
+}
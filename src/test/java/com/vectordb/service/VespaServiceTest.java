@@ -0,0 +1,32 @@
+package com.vectordb.service;
+
+import ai.vespa.feed.client.DocumentId;
+import ai.vespa.feed.client.FeedException;
+import ai.vespa.feed.client.ResultException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VespaServiceTest {
+
+    private static final DocumentId ID = DocumentId.of("vectordb", "embedding", "1");
+
+    @Test
+    void rejectedDocumentsDoNotCountAsOverload() {
+        assertThat(VespaService.isOverload(new ResultException(ID, "Insufficient storage", null))).isFalse();
+        assertThat(VespaService.isOverload(
+                new FeedException(ID, "Status 400 executing 'POST /document/v1/...': bad field"))).isFalse();
+    }
+
+    @Test
+    void throttlingAndTransportErrorsCountAsOverload() {
+        assertThat(VespaService.isOverload(
+                new FeedException(ID, "Status 429 executing 'POST /document/v1/...': too many requests"))).isTrue();
+        assertThat(VespaService.isOverload(
+                new FeedException(ID, "Status 503 executing 'POST /document/v1/...': unavailable"))).isTrue();
+        assertThat(VespaService.isOverload(new FeedException(ID, new IOException("Connection reset")))).isTrue();
+        assertThat(VespaService.isOverload(new IOException("Connection refused"))).isTrue();
+    }
+}
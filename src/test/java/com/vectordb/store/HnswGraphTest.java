@@ -0,0 +1,145 @@
+package com.vectordb.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HnswGraphTest {
+
+    private static final int DIMENSION = 32;
+
+    @Test
+    void recallAgainstBruteForce() throws Exception {
+        Random random = new Random(42);
+        float[][] vectors = new float[4000][];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = randomUnitVector(random);
+        }
+
+        HnswGraph<Integer> graph = new HnswGraph<>(DIMENSION, 16, 100);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> inserts = new ArrayList<>();
+            for (int i = 0; i < vectors.length; i++) {
+                int id = i;
+                inserts.add(executor.submit(() -> graph.insert(vectors[id], id)));
+            }
+            for (Future<Integer> insert : inserts) {
+                insert.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        int k = 10;
+        int found = 0;
+        int queries = 100;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomUnitVector(random);
+            Set<Integer> expected = IntStream.range(0, vectors.length).boxed()
+                    .sorted(Comparator.comparingDouble(i -> -dot(query, vectors[i])))
+                    .limit(k)
+                    .collect(Collectors.toSet());
+            for (HnswGraph.Hit hit : graph.search(query, k, 100, null)) {
+                if (expected.contains(graph.payload(hit.node()))) {
+                    found++;
+                }
+            }
+        }
+        assertThat((double) found / (queries * k)).isGreaterThan(0.95);
+    }
+
+    @Test
+    void deletedNodesAreSkipped() {
+        Random random = new Random(7);
+        HnswGraph<Integer> graph = new HnswGraph<>(DIMENSION, 16, 100);
+        float[] target = randomUnitVector(random);
+        int node = graph.insert(target, 0);
+        for (int i = 1; i < 200; i++) {
+            graph.insert(randomUnitVector(random), i);
+        }
+
+        assertThat(graph.search(target, 1, 50, null).get(0).node()).isEqualTo(node);
+        graph.markDeleted(node);
+        assertThat(graph.search(target, 10, 50, null)).extracting(HnswGraph.Hit::node).doesNotContain(node);
+    }
+
+    @Test
+    void storedVectorIsReturnedAsACopy() {
+        float[] vector = randomUnitVector(new Random(5));
+        HnswGraph<Integer> graph = new HnswGraph<>(DIMENSION, 16, 100);
+        int node = graph.insert(vector, 0);
+
+        float[] stored = graph.vector(node);
+        assertThat(stored).containsExactly(vector, within(1e-6f));
+        stored[0] = 42;
+        assertThat(graph.vector(node)[0]).isNotEqualTo(42);
+    }
+
+    @Test
+    void concurrentPayloadUpdatesAreNotLost() throws Exception {
+        HnswGraph<List<Integer>> graph = new HnswGraph<>(DIMENSION, 16, 100);
+        int node = graph.insert(randomUnitVector(new Random(1)), List.of());
+
+        int threads = 8;
+        int perThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        int value = thread * perThread + i;
+                        graph.updatePayload(node, payload -> {
+                            List<Integer> next = new ArrayList<>(payload);
+                            next.add(value);
+                            return next;
+                        });
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(graph.payload(node)).hasSize(threads * perThread);
+    }
+
+    private static float[] randomUnitVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        double norm = 0;
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
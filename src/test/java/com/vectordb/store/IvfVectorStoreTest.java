@@ -0,0 +1,173 @@
+package com.vectordb.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vectordb.config.StoreConfig;
+import com.vectordb.dto.SearchRequest;
+import com.vectordb.dto.SearchResponse;
+import com.vectordb.model.ContentType;
+import com.vectordb.model.MetadataUpdate;
+import com.vectordb.model.VectorDocument;
+import com.vectordb.service.SearchResultCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class IvfVectorStoreTest {
+
+    private static final int DIMENSION = 16;
+    private static final int DOCUMENTS = 300;
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private StoreConfig storeConfig;
+    private IvfVectorStore store;
+
+    @BeforeEach
+    void setUp() {
+        storeConfig = new StoreConfig();
+        storeConfig.setIvfDirectory(directory.toString());
+        storeConfig.setIvfLists(4);
+        storeConfig.setIvfNprobe(4);
+        storeConfig.setIvfTrainingSize(100);
+        store = open();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        store.close();
+    }
+
+    @Test
+    void trainedIndexIsServedAgainAfterReopen() throws Exception {
+        float[][] vectors = storeDocuments();
+        awaitTraining();
+        assertThat(store.updateFields("doc-7", MetadataUpdate.builder().category("updated").build()).join()
+                .isSuccess()).isTrue();
+        store.deleteDocument("doc-8");
+
+        store.close();
+        store = open();
+        awaitIdIndex();
+
+        assertThat(store.getStatus().getDetails())
+                .containsEntry("vectors", DOCUMENTS)
+                .containsEntry("lists", 4);
+        for (int i = 0; i < 20; i++) {
+            assertThat(nearestId(vectors[i])).isEqualTo(i == 8 ? null : "doc-" + i);
+        }
+        SearchResponse response = store.search(vectors[7], exact(1));
+        assertThat(response.getResults().get(0).getCategory()).isEqualTo("updated");
+        assertThat(store.getStatus().getDetails()).containsEntry("documents", DOCUMENTS - 1);
+    }
+
+    @Test
+    void vectorsStagedDuringTrainingStaySearchable() throws Exception {
+        float[][] vectors = storeDocuments();
+        awaitTraining();
+
+        for (int i = 0; i < DOCUMENTS; i++) {
+            assertThat(nearestId(vectors[i])).isEqualTo("doc-" + i);
+        }
+    }
+
+    @Test
+    void stagedVectorsAreMovedIntoTheirLists() throws Exception {
+        float[][] vectors = storeDocuments();
+        awaitTraining();
+        awaitStagingDrained();
+        store.deleteDocument("doc-5");
+
+        for (int i = 0; i < DOCUMENTS; i++) {
+            assertThat(nearestId(vectors[i])).isEqualTo(i == 5 ? null : "doc-" + i);
+        }
+        assertThat(store.search(vectors[3], exact(DOCUMENTS).toBuilder().rerank(true).build()).getResults())
+                .hasSize(DOCUMENTS - 1)
+                .extracting(SearchResponse.SearchResult::getId).doesNotHaveDuplicates();
+
+        store.close();
+        store = open();
+        awaitIdIndex();
+        awaitStagingDrained();
+        assertThat(store.search(vectors[3], exact(1).toBuilder().rerank(true).build()).getResults().get(0)
+                .getEmbedding()).containsExactly(vectors[3]);
+        assertThat(store.getStatus().getDetails()).containsEntry("documents", DOCUMENTS - 1);
+    }
+
+    @Test
+    void rerankRequestsReturnTheStoredVectors() {
+        float[][] vectors = storeDocuments();
+
+        SearchResponse.SearchResult hit = store.search(vectors[3],
+                exact(1).toBuilder().rerank(true).build()).getResults().get(0);
+
+        assertThat(hit.getEmbedding()).containsExactly(vectors[3]);
+    }
+
+    private IvfVectorStore open() {
+        IvfVectorStore opened = new IvfVectorStore(storeConfig, mock(SearchResultCache.class), objectMapper);
+        opened.init();
+        return opened;
+    }
+
+    private void awaitIdIndex() throws InterruptedException {
+        for (int i = 0; i < 500 && !store.getStatus().getStatus().equals("up"); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(store.getStatus().getStatus()).isEqualTo("up");
+    }
+
+    private float[][] storeDocuments() {
+        Random random = new Random(17);
+        float[][] vectors = new float[DOCUMENTS][];
+        for (int i = 0; i < DOCUMENTS; i++) {
+            float[] vector = new float[DIMENSION];
+            for (int d = 0; d < DIMENSION; d++) {
+                vector[d] = (float) random.nextGaussian();
+            }
+            vectors[i] = LocalSearchSupport.normalize(vector);
+            assertThat(store.storeDocument(VectorDocument.builder()
+                    .id("doc-" + i)
+                    .content("document " + i)
+                    .contentType(ContentType.TEXT)
+                    .category("original")
+                    .createdAt(Instant.now())
+                    .embedding(vectors[i])
+                    .build())).isTrue();
+        }
+        return vectors;
+    }
+
+    private void awaitTraining() throws InterruptedException {
+        for (int i = 0; i < 500 && !store.getStatus().getDetails().get("lists").equals(4); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(store.getStatus().getDetails()).containsEntry("lists", 4);
+    }
+
+    private void awaitStagingDrained() throws InterruptedException {
+        for (int i = 0; i < 500 && !store.getStatus().getDetails().get("staged").equals(0); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(store.getStatus().getDetails()).containsEntry("staged", 0);
+    }
+
+    private String nearestId(float[] vector) {
+        SearchResponse response = store.search(vector, exact(1));
+        SearchResponse.SearchResult hit = response.getResults().get(0);
+        return hit.getScore() > 0.99 ? hit.getId().substring(hit.getId().lastIndexOf(':') + 1) : null;
+    }
+
+    private static SearchRequest exact(int limit) {
+        return SearchRequest.builder().query("q").limit(limit).approximate(false).build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.vectordb.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class KMeansTest {
+
+    private static final int DIMENSION = 16;
+
+    @Test
+    void separatedClustersGetOneCentroidEach() {
+        Random random = new Random(11);
+        int clusters = 4;
+        int perCluster = 100;
+        float[][] vectors = new float[clusters * perCluster][];
+        for (int c = 0; c < clusters; c++) {
+            for (int i = 0; i < perCluster; i++) {
+                // Cluster c is centered on axis c
+                float[] vector = new float[DIMENSION];
+                for (int d = 0; d < DIMENSION; d++) {
+                    vector[d] = (float) (random.nextGaussian() * 0.05);
+                }
+                vector[c] += 1;
+                vectors[c * perCluster + i] = LocalSearchSupport.normalize(vector);
+            }
+        }
+
+        float[][] centroids = KMeans.train(vectors, clusters, 10, 42L);
+
+        assertThat(centroids).hasNumberOfRows(clusters);
+        for (float[] centroid : centroids) {
+            assertThat(LocalSearchSupport.dot(centroid, centroid, 0)).isCloseTo(1f, within(1e-4f));
+        }
+        for (int c = 0; c < clusters; c++) {
+            Set<Integer> assigned = new HashSet<>();
+            for (int i = 0; i < perCluster; i++) {
+                assigned.add(KMeans.nearest(centroids, vectors[c * perCluster + i]));
+            }
+            assertThat(assigned).hasSize(1);
+        }
+    }
+}